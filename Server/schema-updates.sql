@@ -0,0 +1,86 @@
+-- Incremental schema changes for Mentoring Platform
+-- Production runs with ddl-auto=validate; apply this script (idempotent) before deploying a new build.
+
+-- Availability ids come from a sequence (allocation size 50) so weekly template writes can be batched.
+-- Moved past existing ids, never backwards: running instances may hold blocks below the current value.
+CREATE SEQUENCE IF NOT EXISTS availabilities_seq INCREMENT BY 50;
+SELECT setval('availabilities_seq', GREATEST((SELECT last_value FROM availabilities_seq),
+                                             (SELECT COALESCE(MAX(id), 0) FROM availabilities) + 50));
+
+-- Per-date blackouts and extra windows on top of the weekly availability
+CREATE TABLE IF NOT EXISTS availability_exceptions (
+    id BIGSERIAL PRIMARY KEY,
+    mentor_id BIGINT NOT NULL REFERENCES users(id),
+    exception_date DATE NOT NULL,
+    exception_type VARCHAR(20) NOT NULL,
+    start_time TIME,
+    end_time TIME,
+    reason VARCHAR(255)
+);
+CREATE INDEX IF NOT EXISTS idx_availability_exceptions_mentor_date ON availability_exceptions (mentor_id, exception_date);
+
+-- No two blocking sessions of one mentor may overlap, even when booked through different instances.
+-- SessionService maps a violation of this constraint to HTTP 409.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'sessions_mentor_no_overlap') THEN
+        ALTER TABLE sessions ADD CONSTRAINT sessions_mentor_no_overlap EXCLUDE USING gist (
+            mentor_id WITH =,
+            tsrange(scheduled_date_time, scheduled_date_time + duration_minutes * INTERVAL '1 minute') WITH &&
+        ) WHERE (status NOT IN ('CANCELLED', 'REJECTED'));
+    END IF;
+END $$;
+
+-- Session ids come from a sequence (allocation size 50) so recurring series inserts can be batched
+CREATE SEQUENCE IF NOT EXISTS sessions_seq INCREMENT BY 50;
+SELECT setval('sessions_seq', GREATEST((SELECT last_value FROM sessions_seq),
+                                       (SELECT COALESCE(MAX(id), 0) FROM sessions) + 50));
+
+-- Stored responses for mutations sent with an Idempotency-Key (shared across nodes)
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_fingerprint VARCHAR(64) NOT NULL,
+    status_code INTEGER NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_records_user_key UNIQUE (username, idempotency_key)
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_records_expires_at ON idempotency_records (expires_at);
+
+-- Keyset pagination of upcoming sessions and session history on (scheduled_date_time, id) per participant
+CREATE INDEX IF NOT EXISTS idx_sessions_mentor_time_id ON sessions (mentor_id, scheduled_date_time, id);
+CREATE INDEX IF NOT EXISTS idx_sessions_mentee_time_id ON sessions (mentee_id, scheduled_date_time, id);
+
+-- Delta sync (GET /sessions/changes) reads each participant's sessions in (updated_at, id) order.
+-- Rows written before updated_at was always set would never be seen as changed.
+UPDATE sessions SET updated_at = created_at WHERE updated_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_sessions_mentor_updated_id ON sessions (mentor_id, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_sessions_mentee_updated_id ON sessions (mentee_id, updated_at, id);
+
+-- Lifecycle sweeper: finds CONFIRMED sessions that have ended; the index shrinks as they are closed
+CREATE INDEX IF NOT EXISTS idx_sessions_confirmed_time ON sessions (scheduled_date_time) WHERE status = 'CONFIRMED';
+
+-- Stateless JWT authentication: tokens carry the user's token version; incrementing it revokes older tokens
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+
+-- Ids of access/refresh tokens revoked before expiry; mirrored in memory, rows purged once the token has expired
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id VARCHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+-- Idempotency keys are claimed (row without a status) before the mutation runs, then completed with the response
+ALTER TABLE idempotency_records ALTER COLUMN status_code DROP NOT NULL;
+
+-- Only revoked access token ids are loaded into the in-memory revocation filter
+ALTER TABLE revoked_tokens ADD COLUMN IF NOT EXISTS token_type VARCHAR(10) NOT NULL DEFAULT 'ACCESS';
+
+-- Lifecycle sweeper: finds PENDING sessions whose start passed without an answer
+CREATE INDEX IF NOT EXISTS idx_sessions_pending_time ON sessions (scheduled_date_time) WHERE status = 'PENDING';
@@ -1,20 +1,26 @@
 package com.mentoringplatform.server.controller;
 
 import com.mentoringplatform.server.dto.ApiResponse;
+import com.mentoringplatform.server.dto.AuthCacheStats;
 import com.mentoringplatform.server.dto.AuthRequest;
 import com.mentoringplatform.server.dto.AuthResponse;
+import com.mentoringplatform.server.dto.RefreshTokenRequest;
 import com.mentoringplatform.server.dto.SignupRequest;
 import com.mentoringplatform.server.dto.SignupResponse;
 import com.mentoringplatform.server.model.User;
-import com.mentoringplatform.server.security.JwtTokenProvider;
+import com.mentoringplatform.server.security.AuthenticationCache;
 import com.mentoringplatform.server.security.UserPrincipal;
+import com.mentoringplatform.server.service.TokenService;
 import com.mentoringplatform.server.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -27,16 +33,19 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
-    private final JwtTokenProvider tokenProvider;
+    private final TokenService tokenService;
+    private final AuthenticationCache authenticationCache;
 
     public AuthController(AuthenticationManager authenticationManager,
                          UserService userService,
                          PasswordEncoder passwordEncoder,
-                         JwtTokenProvider tokenProvider) {
+                         TokenService tokenService,
+                         AuthenticationCache authenticationCache) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
-        this.tokenProvider = tokenProvider;
+        this.tokenService = tokenService;
+        this.authenticationCache = authenticationCache;
     }
 
     @PostMapping("/signup")
@@ -78,29 +87,54 @@ public class AuthController {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-
-        AuthResponse authResponse = new AuthResponse(
-                jwt,
-                userPrincipal.getUsername(),
-                userPrincipal.getEmail(),
-                userPrincipal.getAuthorities().stream()
-                        .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                        .toArray(String[]::new)
-        );
+        AuthResponse authResponse = tokenService.issueTokens(userPrincipal);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(ApiResponse.success(authResponse, "Login successful"));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refreshTokens(@Valid @RequestBody RefreshTokenRequest request) {
+        // The presented refresh token is spent; the response carries a new pair
+        AuthResponse authResponse = tokenService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success(authResponse, "Tokens refreshed"));
+    }
+
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Void>> logout(@AuthenticationPrincipal UserPrincipal principal,
+                                                    @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        tokenService.logout(principal.getId(), accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(ApiResponse.success(null, "Signed out"));
+    }
+
+    @PostMapping("/logout-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Void>> logoutEverywhere(@AuthenticationPrincipal UserPrincipal principal) {
+        // Bumps the token version, so every token issued so far (including this one) stops working
+        userService.revokeTokens(principal.getId());
+        return ResponseEntity.ok(ApiResponse.success(null, "Signed out of all sessions"));
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AuthCacheStats>> getAuthCacheStats() {
+        AuthCacheStats stats = authenticationCache.stats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Authentication cache stats retrieved successfully"));
+    }
+
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<AuthResponse>> getCurrentUser() {
         UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext()
                 .getAuthentication().getPrincipal();
 
         AuthResponse authResponse = new AuthResponse(
+                null,
+                null,
                 null,
                 userPrincipal.getUsername(),
                 userPrincipal.getEmail(),
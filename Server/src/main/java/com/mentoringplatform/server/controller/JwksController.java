@@ -0,0 +1,34 @@
+package com.mentoringplatform.server.controller;
+
+import com.mentoringplatform.server.security.JwtKeys;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Public keys that verify this service's tokens, for gateways and other services. Served as a plain
+ * JWK Set rather than an {@code ApiResponse}, since verifiers expect the standard document.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+public class JwksController {
+
+    private final JwtKeys jwtKeys;
+
+    public JwksController(JwtKeys jwtKeys) {
+        this.jwtKeys = jwtKeys;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        // A new key only starts signing once it has been published for this long
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(JwtKeys.JWKS_MAX_AGE).cachePublic())
+                .body(jwtKeys.jwks());
+    }
+}
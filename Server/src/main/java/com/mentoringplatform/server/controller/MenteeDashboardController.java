@@ -2,11 +2,16 @@ package com.mentoringplatform.server.controller;
 
 import com.mentoringplatform.server.dto.ApiResponse;
 import com.mentoringplatform.server.dto.MentorDetailsResponse;
+import com.mentoringplatform.server.service.ListVersions;
 import com.mentoringplatform.server.service.MentorService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,23 +20,55 @@ import java.util.List;
 public class MenteeDashboardController {
 
     private final MentorService mentorService;
+    private final ListVersions listVersions;
 
-    public MenteeDashboardController(MentorService mentorService) {
+    public MenteeDashboardController(MentorService mentorService, ListVersions listVersions) {
         this.mentorService = mentorService;
+        this.listVersions = listVersions;
     }
 
     @GetMapping("/mentors")
     @PreAuthorize("hasRole('MENTEE')")
-    public ResponseEntity<ApiResponse<List<MentorDetailsResponse>>> getAvailableMentors() {
+    public ResponseEntity<ApiResponse<List<MentorDetailsResponse>>> getAvailableMentors(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            String etag = listVersions.mentorsETag();
+            if (ListVersions.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ListVersions.REVALIDATE).build();
+            }
             List<MentorDetailsResponse> mentors = mentorService.getAllAvailableMentors();
-            return ResponseEntity.ok(ApiResponse.success(mentors, "Available mentors retrieved successfully"));
+            return ResponseEntity.ok().eTag(etag).cacheControl(ListVersions.REVALIDATE).body(ApiResponse.success(mentors, "Available mentors retrieved successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Failed to retrieve mentors: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/mentors/free")
+    @PreAuthorize("hasRole('MENTEE')")
+    public ResponseEntity<ApiResponse<List<MentorDetailsResponse>>> getFreeMentors(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "60") Integer durationMinutes,
+            @RequestParam(required = false) String expertise) {
+        if (durationMinutes == null || durationMinutes <= 0) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to search free mentors: durationMinutes must be positive"));
+        }
+        try {
+            List<MentorDetailsResponse> mentors = mentorService.findFreeMentors(start, end, durationMinutes, expertise);
+            return ResponseEntity.ok(ApiResponse.success(mentors, "Free mentors retrieved successfully"));
+        } catch (IllegalStateException e) {
+            // The free-time index is built by a scheduled job shortly after startup
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(ApiResponse.error("SERVICE_UNAVAILABLE", "Failed to search free mentors: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to search free mentors: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/mentors/all")
     @PreAuthorize("hasRole('MENTEE')")
     public ResponseEntity<ApiResponse<List<MentorDetailsResponse>>> getAllMentors() {
@@ -0,0 +1,86 @@
+package com.mentoringplatform.server.controller;
+
+import com.mentoringplatform.server.dto.ApiResponse;
+import com.mentoringplatform.server.dto.AvailabilityExceptionRequest;
+import com.mentoringplatform.server.dto.AvailabilityExceptionResponse;
+import com.mentoringplatform.server.dto.WeeklyAvailabilityRequest;
+import com.mentoringplatform.server.security.UserPrincipal;
+import com.mentoringplatform.server.service.AvailabilityService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/monitoringPlatform/mentor/availability")
+@CrossOrigin(origins = "*")
+public class MentorAvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    public MentorAvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @PutMapping("/weekly")
+    @PreAuthorize("hasRole('MENTOR')")
+    public ResponseEntity<ApiResponse<Void>> replaceWeeklyAvailability(
+            @Valid @RequestBody WeeklyAvailabilityRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            availabilityService.replaceWeeklySchedule(principal.getId(), request);
+            return ResponseEntity.ok(ApiResponse.success(null, "Weekly availability updated successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to update weekly availability: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/exceptions")
+    @PreAuthorize("hasRole('MENTOR')")
+    public ResponseEntity<ApiResponse<AvailabilityExceptionResponse>> addException(
+            @Valid @RequestBody AvailabilityExceptionRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            AvailabilityExceptionResponse response = availabilityService.addException(principal.getId(), request);
+            return ResponseEntity.ok(ApiResponse.success(response, "Availability exception added successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to add availability exception: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/exceptions")
+    @PreAuthorize("hasRole('MENTOR')")
+    public ResponseEntity<ApiResponse<List<AvailabilityExceptionResponse>>> getExceptions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            List<AvailabilityExceptionResponse> exceptions = availabilityService.getExceptions(principal.getId(), from, to);
+            return ResponseEntity.ok(ApiResponse.success(exceptions, "Availability exceptions retrieved successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve availability exceptions: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/exceptions/{exceptionId}")
+    @PreAuthorize("hasRole('MENTOR')")
+    public ResponseEntity<ApiResponse<Void>> deleteException(
+            @PathVariable Long exceptionId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            availabilityService.deleteException(principal.getId(), exceptionId);
+            return ResponseEntity.ok(ApiResponse.success(null, "Availability exception removed successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to remove availability exception: " + e.getMessage()));
+        }
+    }
+}
@@ -2,15 +2,20 @@ package com.mentoringplatform.server.controller;
 
 import com.mentoringplatform.server.dto.ApiResponse;
 import com.mentoringplatform.server.model.UserNotification;
+import com.mentoringplatform.server.security.UserPrincipal;
+import com.mentoringplatform.server.service.ListVersions;
 import com.mentoringplatform.server.service.NotificationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,29 +27,37 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final ListVersions listVersions;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, ListVersions listVersions) {
         this.notificationService = notificationService;
+        this.listVersions = listVersions;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<List<UserNotification>>> getNotifications(Authentication authentication) {
-        List<UserNotification> notifications = notificationService.getLatestNotifications(authentication.getName(), 50);
-        return ResponseEntity.ok(ApiResponse.success(notifications, "Notifications retrieved"));
+    public ResponseEntity<ApiResponse<List<UserNotification>>> getNotifications(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        String etag = listVersions.notificationsETag(principal.getId());
+        if (ListVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ListVersions.REVALIDATE).build();
+        }
+        List<UserNotification> notifications = notificationService.getLatestNotifications(principal.getId(), 50);
+        return ResponseEntity.ok().eTag(etag).cacheControl(ListVersions.REVALIDATE).body(ApiResponse.success(notifications, "Notifications retrieved"));
     }
 
     @PatchMapping("/{id}/read")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable Long id, Authentication authentication) {
-        notificationService.markAsRead(authentication.getName(), id);
+    public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        notificationService.markAsRead(principal.getId(), id);
         return ResponseEntity.ok(ApiResponse.success(null, "Notification marked as read"));
     }
 
     @PostMapping("/mark-all-read")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<Void>> markAllAsRead(Authentication authentication) {
-        notificationService.markAllAsRead(authentication.getName());
+    public ResponseEntity<ApiResponse<Void>> markAllAsRead(@AuthenticationPrincipal UserPrincipal principal) {
+        notificationService.markAllAsRead(principal.getId());
         return ResponseEntity.ok(ApiResponse.success(null, "All notifications marked as read"));
     }
 }
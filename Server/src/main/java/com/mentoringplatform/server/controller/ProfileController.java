@@ -3,11 +3,12 @@ package com.mentoringplatform.server.controller;
 import com.mentoringplatform.server.dto.ApiResponse;
 import com.mentoringplatform.server.dto.ProfileRequest;
 import com.mentoringplatform.server.dto.ProfileResponse;
+import com.mentoringplatform.server.security.UserPrincipal;
 import com.mentoringplatform.server.service.ProfileService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -23,10 +24,9 @@ public class ProfileController {
 
     @GetMapping
     @PreAuthorize("hasRole('MENTOR')")
-    public ResponseEntity<ApiResponse<ProfileResponse>> getProfile(Authentication authentication) {
+    public ResponseEntity<ApiResponse<ProfileResponse>> getProfile(@AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            ProfileResponse profile = profileService.getProfile(username);
+            ProfileResponse profile = profileService.getProfile(principal.getId());
             return ResponseEntity.ok(ApiResponse.success(profile, "Profile retrieved successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -38,10 +38,9 @@ public class ProfileController {
     @PreAuthorize("hasRole('MENTOR')")
     public ResponseEntity<ApiResponse<ProfileResponse>> updateProfile(
             @Valid @RequestBody ProfileRequest profileRequest,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            ProfileResponse updatedProfile = profileService.updateProfile(username, profileRequest);
+            ProfileResponse updatedProfile = profileService.updateProfile(principal.getId(), profileRequest);
             return ResponseEntity.ok(ApiResponse.success(updatedProfile, "Profile updated successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -2,11 +2,12 @@ package com.mentoringplatform.server.controller;
 
 import com.mentoringplatform.server.dto.ApiResponse;
 import com.mentoringplatform.server.dto.PushSubscriptionRequest;
+import com.mentoringplatform.server.security.UserPrincipal;
 import com.mentoringplatform.server.service.PushSubscriptionService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,8 +29,8 @@ public class PushSubscriptionController {
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
     public ResponseEntity<ApiResponse<Void>> registerSubscription(
             @Valid @RequestBody PushSubscriptionRequest request,
-            Authentication authentication) {
-        pushSubscriptionService.upsertSubscription(authentication.getName(), request);
+            @AuthenticationPrincipal UserPrincipal principal) {
+        pushSubscriptionService.upsertSubscription(principal.getId(), request);
         return ResponseEntity.ok(ApiResponse.success(null, "Subscription registered"));
     }
 }
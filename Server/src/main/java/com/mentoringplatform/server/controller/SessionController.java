@@ -2,54 +2,163 @@ package com.mentoringplatform.server.controller;
 
 import com.mentoringplatform.server.dto.ApiResponse;
 import com.mentoringplatform.server.dto.SessionBookingRequest;
+import com.mentoringplatform.server.dto.SessionChanges;
+import com.mentoringplatform.server.dto.SessionPage;
 import com.mentoringplatform.server.dto.SessionResponse;
+import com.mentoringplatform.server.dto.SessionSeriesRequest;
+import com.mentoringplatform.server.dto.SessionSeriesResponse;
+import com.mentoringplatform.server.dto.SessionSweeperStats;
 import com.mentoringplatform.server.dto.AvailabilitySlot;
+import com.mentoringplatform.server.dto.CalendarCacheStats;
 import com.mentoringplatform.server.dto.MentorAvailabilityRequest;
+import com.mentoringplatform.server.dto.SlotHoldRequest;
+import com.mentoringplatform.server.dto.SlotHoldResponse;
+import com.mentoringplatform.server.exception.SlotConflictException;
 import com.mentoringplatform.server.model.Session;
+import com.mentoringplatform.server.security.UserPrincipal;
+import com.mentoringplatform.server.service.IdempotencyService;
+import com.mentoringplatform.server.service.ListVersions;
+import com.mentoringplatform.server.service.SessionLifecycleSweeper;
 import com.mentoringplatform.server.service.SessionService;
 import com.mentoringplatform.server.service.AvailabilityService;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/monitoringPlatform/sessions")
 @CrossOrigin(origins = "*")
 public class SessionController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Retried mutations carrying the same key replay the first response (see IdempotencyService)
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final SessionService sessionService;
     private final AvailabilityService availabilityService;
+    private final IdempotencyService idempotencyService;
+    private final ListVersions listVersions;
+    private final SessionLifecycleSweeper lifecycleSweeper;
 
-    public SessionController(SessionService sessionService, AvailabilityService availabilityService) {
+    public SessionController(SessionService sessionService,
+                             AvailabilityService availabilityService,
+                             IdempotencyService idempotencyService,
+                             ListVersions listVersions,
+                             SessionLifecycleSweeper lifecycleSweeper) {
         this.sessionService = sessionService;
         this.availabilityService = availabilityService;
+        this.idempotencyService = idempotencyService;
+        this.listVersions = listVersions;
+        this.lifecycleSweeper = lifecycleSweeper;
     }
 
     @PostMapping("/book")
     @PreAuthorize("hasRole('MENTEE')")
-    public ResponseEntity<ApiResponse<SessionResponse>> bookSession(
+    public ResponseEntity<?> bookSession(
             @Valid @RequestBody SessionBookingRequest request,
-            Authentication authentication) {
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return idempotencyService.execute(idempotencyKey, principal.getUsername(), "POST /sessions/book", request, () -> {
+            try {
+                SessionResponse session = sessionService.bookSession(principal.getId(), request);
+                return ResponseEntity.ok(ApiResponse.success(session, "Session booked successfully"));
+            } catch (SlotConflictException e) {
+                return slotConflict("Failed to book session: ", e);
+            } catch (DataAccessException | TransactionException e) {
+                return unavailable("Failed to book session: ", e);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Failed to book session: " + e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping("/book/series")
+    @PreAuthorize("hasRole('MENTEE')")
+    public ResponseEntity<?> bookSeries(
+            @Valid @RequestBody SessionSeriesRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return idempotencyService.execute(idempotencyKey, principal.getUsername(), "POST /sessions/book/series", request, () -> {
+            try {
+                SessionSeriesResponse series = sessionService.bookSeries(principal.getId(), request);
+                if (series.getBookedCount() == 0) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(ApiResponse.error("SLOT_CONFLICT", "No occurrences were booked", series));
+                }
+                return ResponseEntity.ok(ApiResponse.success(series, "Session series booked successfully"));
+            } catch (SlotConflictException e) {
+                return slotConflict("Failed to book session series: ", e);
+            } catch (DataAccessException | TransactionException e) {
+                return unavailable("Failed to book session series: ", e);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Failed to book session series: " + e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('MENTEE')")
+    public ResponseEntity<?> holdSlot(
+            @Valid @RequestBody SlotHoldRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return idempotencyService.execute(idempotencyKey, principal.getUsername(), "POST /sessions/holds", request, () -> {
+            try {
+                SlotHoldResponse hold = sessionService.holdSlot(principal.getId(), request);
+                return ResponseEntity.ok(ApiResponse.success(hold, "Slot held successfully"));
+            } catch (SlotConflictException e) {
+                return slotConflict("Failed to hold slot: ", e);
+            } catch (DataAccessException | TransactionException e) {
+                return unavailable("Failed to hold slot: ", e);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Failed to hold slot: " + e.getMessage()));
+            }
+        });
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('MENTEE')")
+    public ResponseEntity<ApiResponse<Void>> releaseHold(
+            @PathVariable String holdId,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String menteeUsername = authentication.getName();
-            SessionResponse session = sessionService.bookSession(menteeUsername, request);
-            return ResponseEntity.ok(ApiResponse.success(session, "Session booked successfully"));
+            sessionService.releaseHold(principal.getId(), holdId);
+            return ResponseEntity.ok(ApiResponse.success(null, "Hold released successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to book session: " + e.getMessage()));
+                    .body(ApiResponse.error("Failed to release hold: " + e.getMessage()));
         }
     }
 
     @PostMapping("/availability")
     @PreAuthorize("hasRole('MENTEE')")
     public ResponseEntity<ApiResponse<List<AvailabilitySlot>>> getAvailableTimeSlots(
-            @Valid @RequestBody MentorAvailabilityRequest request) {
+            @Valid @RequestBody MentorAvailabilityRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            List<AvailabilitySlot> slots = availabilityService.getAvailableTimeSlots(request);
+            List<AvailabilitySlot> slots = availabilityService.getAvailableTimeSlots(request, principal.getId());
             return ResponseEntity.ok(ApiResponse.success(slots, "Available time slots retrieved successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -57,6 +166,66 @@ public class SessionController {
         }
     }
 
+    /**
+     * Streams available slots as newline-delimited JSON while they are generated.
+     * {@code format=compact} (default) writes {@code {"s":<epoch minute>,"d":<minutes>}} where the epoch minute
+     * is the slot's wall-clock time read as UTC; {@code format=iso} writes ISO local start/end times.
+     * Display formatting is left to the client.
+     */
+    @PostMapping("/availability/stream")
+    @PreAuthorize("hasRole('MENTEE')")
+    public ResponseEntity<?> streamAvailableTimeSlots(
+            @Valid @RequestBody MentorAvailabilityRequest request,
+            @RequestParam(defaultValue = "compact") String format,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (request.getMentorId() == null || request.getStartDate() == null || request.getEndDate() == null
+                || request.getEndDate().isBefore(request.getStartDate())) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to stream available time slots: mentorId and a valid date range are required"));
+        }
+        // Checked before the 200 is committed; a bad duration would otherwise fail mid-stream
+        if (request.getDurationMinutes() == null || request.getDurationMinutes() <= 0) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to stream available time slots: durationMinutes must be positive"));
+        }
+        if (!format.equals("compact") && !format.equals("iso")) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to stream available time slots: unknown format " + format));
+        }
+
+        boolean compact = format.equals("compact");
+        Long requesterId = principal.getId();
+        StreamingResponseBody body = outputStream -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                availabilityService.forEachAvailableSlot(request, requesterId, (startMinute, durationMinutes) -> {
+                    try {
+                        writer.write(compact
+                                ? compactSlotLine(startMinute, durationMinutes)
+                                : isoSlotLine(startMinute, durationMinutes));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private static String compactSlotLine(long startMinute, int durationMinutes) {
+        return "{\"s\":" + startMinute + ",\"d\":" + durationMinutes + "}";
+    }
+
+    private static String isoSlotLine(long startMinute, int durationMinutes) {
+        LocalDateTime start = LocalDateTime.ofEpochSecond(startMinute * 60, 0, ZoneOffset.UTC);
+        return "{\"startTime\":\"" + start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                + "\",\"endTime\":\"" + start.plusMinutes(durationMinutes).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\"}";
+    }
+
     @GetMapping("/availability/{mentorId}/summary")
     @PreAuthorize("hasRole('MENTEE')")
     public ResponseEntity<ApiResponse<String>> getMentorAvailabilitySummary(@PathVariable Long mentorId) {
@@ -69,13 +238,38 @@ public class SessionController {
         }
     }
 
+    // Operational stats: ADMIN is never granted through sign-up, only in user_roles
+    @GetMapping("/availability/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CalendarCacheStats>> getCalendarCacheStats() {
+        CalendarCacheStats stats = availabilityService.getCalendarCacheStats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Availability calendar cache stats retrieved successfully"));
+    }
+
+    @GetMapping("/sweeper/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<SessionSweeperStats>> getSweeperStats() {
+        SessionSweeperStats stats = lifecycleSweeper.stats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Session sweeper stats retrieved successfully"));
+    }
+
     @GetMapping("/upcoming")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<List<SessionResponse>>> getUpcomingSessions(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<SessionResponse>>> getUpcomingSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            List<SessionResponse> sessions = sessionService.getUpcomingSessions(username);
-            return ResponseEntity.ok(ApiResponse.success(sessions, "Upcoming sessions retrieved successfully"));
+            // Read the version before loading so the ETag never labels newer data than it saw
+            String etag = listVersions.sessionsETag(principal.getId(), "upcoming", cursor, limit);
+            if (ListVersions.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ListVersions.REVALIDATE).build();
+            }
+            SessionPage page = sessionService.getUpcomingSessions(principal.getId(), cursor, limit);
+            return ResponseEntity.ok()
+                    .eTag(etag).cacheControl(ListVersions.REVALIDATE)
+                    .body(ApiResponse.success(page.getSessions(), "Upcoming sessions retrieved successfully", page.getNextCursor()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Failed to retrieve upcoming sessions: " + e.getMessage()));
@@ -84,60 +278,101 @@ public class SessionController {
 
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<List<SessionResponse>>> getSessionHistory(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<SessionResponse>>> getSessionHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            List<SessionResponse> sessions = sessionService.getPastSessions(username);
-            return ResponseEntity.ok(ApiResponse.success(sessions, "Session history retrieved successfully"));
+            SessionPage page = sessionService.getPastSessions(principal.getId(), cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success(page.getSessions(), "Session history retrieved successfully", page.getNextCursor()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Failed to retrieve session history: " + e.getMessage()));
         }
     }
 
-    @PutMapping("/{sessionId}/status")
-    @PreAuthorize("hasRole('MENTOR')")
-    public ResponseEntity<ApiResponse<SessionResponse>> updateSessionStatus(
-            @PathVariable Long sessionId,
-            @RequestParam Session.SessionStatus status,
-            Authentication authentication) {
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
+    public ResponseEntity<ApiResponse<SessionChanges>> getSessionChanges(
+            @RequestParam(required = false) String since,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            SessionResponse session = sessionService.updateSessionStatus(sessionId, status, username);
-            return ResponseEntity.ok(ApiResponse.success(session, "Session status updated successfully"));
+            SessionChanges changes = sessionService.getSessionChanges(principal.getId(), since);
+            return ResponseEntity.ok(ApiResponse.success(changes, "Session changes retrieved successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to update session status: " + e.getMessage()));
+                    .body(ApiResponse.error("Failed to retrieve session changes: " + e.getMessage()));
         }
     }
 
+    @PutMapping("/{sessionId}/status")
+    @PreAuthorize("hasRole('MENTOR')")
+    public ResponseEntity<?> updateSessionStatus(
+            @PathVariable Long sessionId,
+            @RequestParam Session.SessionStatus status,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Map<String, Object> fingerprintSource = Map.of("sessionId", sessionId, "status", status);
+        return idempotencyService.execute(idempotencyKey, principal.getUsername(), "PUT /sessions/status", fingerprintSource, () -> {
+            try {
+                SessionResponse session = sessionService.updateSessionStatus(sessionId, status, principal.getId());
+                return ResponseEntity.ok(ApiResponse.success(session, "Session status updated successfully"));
+            } catch (DataAccessException | TransactionException e) {
+                return unavailable("Failed to update session status: ", e);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Failed to update session status: " + e.getMessage()));
+            }
+        });
+    }
+
     @PutMapping("/{sessionId}/cancel")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
-    public ResponseEntity<ApiResponse<SessionResponse>> cancelSession(
+    public ResponseEntity<?> cancelSession(
             @PathVariable Long sessionId,
-            Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            SessionResponse session = sessionService.cancelSession(sessionId, username);
-            return ResponseEntity.ok(ApiResponse.success(session, "Session cancelled successfully"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to cancel session: " + e.getMessage()));
-        }
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return idempotencyService.execute(idempotencyKey, principal.getUsername(), "PUT /sessions/cancel", Map.of("sessionId", sessionId), () -> {
+            try {
+                SessionResponse session = sessionService.cancelSession(sessionId, principal.getId());
+                return ResponseEntity.ok(ApiResponse.success(session, "Session cancelled successfully"));
+            } catch (DataAccessException | TransactionException e) {
+                return unavailable("Failed to cancel session: ", e);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Failed to cancel session: " + e.getMessage()));
+            }
+        });
     }
 
     @PostMapping("/{sessionId}/presence/join")
     @PreAuthorize("hasAnyRole('MENTOR', 'MENTEE')")
     public ResponseEntity<ApiResponse<Void>> recordSessionJoin(
             @PathVariable Long sessionId,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            sessionService.recordSessionJoin(sessionId, username);
+            sessionService.recordSessionJoin(sessionId, principal.getId());
             return ResponseEntity.ok(ApiResponse.success(null, "Session join recorded"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Failed to record session join: " + e.getMessage()));
         }
     }
+
+    // Conflicts that clear by themselves (busy booking lock, another mentee's hold) carry Retry-After,
+    // which keeps IdempotencyService from storing them: a retry with the same key runs again
+    private static ResponseEntity<ApiResponse<Void>> slotConflict(String prefix, SlotConflictException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CONFLICT);
+        if (e.getRetryAfterSeconds() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        }
+        return response.body(ApiResponse.error("SLOT_CONFLICT", prefix + e.getMessage()));
+    }
+
+    // Database and transaction failures say nothing about the request itself; never stored for replay
+    private static ResponseEntity<ApiResponse<Void>> unavailable(String prefix, Exception e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("SERVICE_UNAVAILABLE", prefix + e.getMessage()));
+    }
 } 
\ No newline at end of file
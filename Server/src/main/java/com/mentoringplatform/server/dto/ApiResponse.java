@@ -1,5 +1,6 @@
 package com.mentoringplatform.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,25 +13,32 @@ public class ApiResponse<T> {
     private T data;
     private String message;
     private String error;
+    // Opaque keyset cursor for the next page of a paginated list; omitted on the last page and elsewhere
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     // Static factory methods for convenience
     public static <T> ApiResponse<T> success(T data) {
-        return new ApiResponse<>(true, data, null, null);
+        return new ApiResponse<>(true, data, null, null, null);
     }
 
     public static <T> ApiResponse<T> success(T data, String message) {
-        return new ApiResponse<>(true, data, message, null);
+        return new ApiResponse<>(true, data, message, null, null);
+    }
+
+    public static <T> ApiResponse<T> success(T data, String message, String nextCursor) {
+        return new ApiResponse<>(true, data, message, null, nextCursor);
     }
 
     public static <T> ApiResponse<T> error(String error) {
-        return new ApiResponse<>(false, null, null, error);
+        return new ApiResponse<>(false, null, null, error, null);
     }
 
     public static <T> ApiResponse<T> error(String error, String message) {
-        return new ApiResponse<>(false, null, message, error);
+        return new ApiResponse<>(false, null, message, error, null);
     }
 
     public static <T> ApiResponse<T> error(String error, String message, T data) {
-        return new ApiResponse<>(false, data, message, error);
+        return new ApiResponse<>(false, data, message, error, null);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.Data;
+
+@Data
+public class AuthCacheStats {
+    private int cachedTokens;
+    private int maxTokens;
+    private long tokenHits;
+    private long tokenMisses;
+    private int cachedUsers;
+    private int maxUsers;
+    private long userHits;
+    private long userMisses;
+    private long userEvictions;
+}
@@ -6,8 +6,13 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 public class AuthResponse {
+    // Short-lived access token, sent as the bearer token
     private String token;
+    // Single-use; exchanged at /auth/refresh for a new pair when the access token expires
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     private String username;
     private String email;
     private String[] roles;
-} 
\ No newline at end of file
+}
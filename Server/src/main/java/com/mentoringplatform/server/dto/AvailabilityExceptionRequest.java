@@ -0,0 +1,27 @@
+package com.mentoringplatform.server.dto;
+
+import com.mentoringplatform.server.model.AvailabilityException;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class AvailabilityExceptionRequest {
+
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    @NotNull(message = "Exception type is required")
+    private AvailabilityException.ExceptionType type;
+
+    // Leave both times empty on a blackout to close the whole day
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    @Size(max = 255, message = "Reason must be at most 255 characters")
+    private String reason;
+}
@@ -0,0 +1,17 @@
+package com.mentoringplatform.server.dto;
+
+import com.mentoringplatform.server.model.AvailabilityException;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class AvailabilityExceptionResponse {
+    private Long id;
+    private LocalDate date;
+    private AvailabilityException.ExceptionType type;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String reason;
+}
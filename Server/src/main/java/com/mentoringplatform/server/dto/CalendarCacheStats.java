@@ -0,0 +1,16 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.Data;
+
+@Data
+public class CalendarCacheStats {
+    private int cachedMentors;
+    private int maxMentors;
+    private int horizonDays;
+    private long bitsPerMentor;
+    private long estimatedHeapBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long discardedBuilds;
+}
@@ -1,5 +1,7 @@
 package com.mentoringplatform.server.dto;
 
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import java.time.LocalDate;
 
@@ -8,5 +10,8 @@ public class MentorAvailabilityRequest {
     private Long mentorId;
     private LocalDate startDate;
     private LocalDate endDate;
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be positive")
     private Integer durationMinutes = 60; // Default 1 hour slots
+    private boolean intersectWithMentee = false; // Also hide times the requesting mentee is already booked
 } 
\ No newline at end of file
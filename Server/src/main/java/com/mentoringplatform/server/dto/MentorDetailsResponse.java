@@ -2,6 +2,8 @@ package com.mentoringplatform.server.dto;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class MentorDetailsResponse {
     private Long id;
@@ -13,4 +15,7 @@ public class MentorDetailsResponse {
     private Double hourlyRate;
     private String description;
     private boolean enabled;
+    // Precomputed by the availability digest refresher; null until the first refresh
+    private LocalDateTime nextAvailableStart;
+    private Double freeHoursThisWeek;
 } 
\ No newline at end of file
@@ -23,4 +23,7 @@ public class SessionBookingRequest {
     private String sessionType = "VIDEO_CALL";
     
     private String notes;
+    
+    // Optional hold from /sessions/holds; the booking must match its mentor and time
+    private String holdId;
 } 
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SessionChanges {
+    // Sessions created or modified after the requested watermark, oldest change first
+    private List<SessionResponse> sessions;
+    // Pass back as "since" on the next poll
+    private String watermark;
+    // True when more changes are waiting; poll again right away with the new watermark
+    private boolean hasMore;
+}
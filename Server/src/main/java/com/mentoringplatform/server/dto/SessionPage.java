@@ -0,0 +1,13 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SessionPage {
+    private List<SessionResponse> sessions;
+    // Null when there are no more sessions
+    private String nextCursor;
+}
@@ -1,9 +1,12 @@
 package com.mentoringplatform.server.dto;
 
+import com.mentoringplatform.server.model.Session;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class SessionResponse {
     private Long id;
     private Long mentorId;
@@ -19,4 +22,25 @@ public class SessionResponse {
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Used by SessionRepository constructor-expression queries that select listings in one statement
+    public SessionResponse(Long id, Long mentorId, String mentorName, String mentorUsername,
+                           Long menteeId, String menteeName, String menteeUsername,
+                           LocalDateTime scheduledDateTime, Integer durationMinutes, Session.SessionStatus status,
+                           String sessionType, String notes, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.mentorId = mentorId;
+        this.mentorName = mentorName;
+        this.mentorUsername = mentorUsername;
+        this.menteeId = menteeId;
+        this.menteeName = menteeName;
+        this.menteeUsername = menteeUsername;
+        this.scheduledDateTime = scheduledDateTime;
+        this.durationMinutes = durationMinutes;
+        this.status = status.name();
+        this.sessionType = sessionType;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
 } 
\ No newline at end of file
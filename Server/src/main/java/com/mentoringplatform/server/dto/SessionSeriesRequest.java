@@ -0,0 +1,52 @@
+package com.mentoringplatform.server.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Max;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class SessionSeriesRequest {
+    
+    @NotNull(message = "Mentor ID is required")
+    private Long mentorId;
+    
+    @NotNull(message = "First session date and time is required")
+    private LocalDateTime firstDateTime;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 15, message = "Minimum session duration is 15 minutes")
+    @Max(value = 240, message = "Maximum session duration is 4 hours")
+    private Integer durationMinutes;
+    
+    @NotNull(message = "Recurrence is required")
+    private Recurrence recurrence = Recurrence.WEEKLY;
+    
+    @NotNull(message = "Number of occurrences is required")
+    @Min(value = 2, message = "A series needs at least 2 occurrences")
+    @Max(value = 52, message = "A series can have at most 52 occurrences")
+    private Integer occurrences;
+    
+    private String sessionType = "VIDEO_CALL";
+    
+    private String notes;
+    
+    // When true, a single conflicting occurrence books nothing
+    private boolean allOrNothing = true;
+    
+    public enum Recurrence {
+        WEEKLY(1),
+        BIWEEKLY(2);
+        
+        private final int weeks;
+        
+        Recurrence(int weeks) {
+            this.weeks = weeks;
+        }
+        
+        public int getWeeks() {
+            return weeks;
+        }
+    }
+}
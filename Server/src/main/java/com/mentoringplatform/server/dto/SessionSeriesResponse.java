@@ -0,0 +1,23 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SessionSeriesResponse {
+    private int bookedCount;
+    private int failedCount;
+    private List<OccurrenceResult> occurrences = new ArrayList<>();
+    
+    @Data
+    public static class OccurrenceResult {
+        private LocalDateTime scheduledDateTime;
+        private boolean booked;
+        // Set when booked
+        private SessionResponse session;
+        // Set when not booked
+        private String reason;
+    }
+}
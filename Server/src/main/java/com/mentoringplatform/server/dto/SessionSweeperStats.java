@@ -0,0 +1,19 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class SessionSweeperStats {
+    private long runs;
+    private LocalDateTime lastRunAt;
+    private long lastRunDurationMs;
+    private int lastRunChunks;
+    private int lastRunCompleted;
+    private int lastRunNoShow;
+    private int lastRunCancelled;
+    private long totalCompleted;
+    private long totalNoShow;
+    private long totalCancelled;
+    private long failedRuns;
+}
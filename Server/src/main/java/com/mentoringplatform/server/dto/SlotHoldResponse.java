@@ -0,0 +1,14 @@
+package com.mentoringplatform.server.dto;
+
+import lombok.Data;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Data
+public class SlotHoldResponse {
+    private String holdId;
+    private Long mentorId;
+    private LocalDateTime scheduledDateTime;
+    private Integer durationMinutes;
+    private Instant expiresAt;
+}
@@ -0,0 +1,34 @@
+package com.mentoringplatform.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full replacement of a mentor's weekly availability. Days without windows are stored as closed.
+ */
+@Data
+public class WeeklyAvailabilityRequest {
+
+    @NotNull(message = "Windows are required")
+    @Valid
+    private List<Window> windows = new ArrayList<>();
+
+    @Data
+    public static class Window {
+
+        @NotNull(message = "Day of week is required")
+        private DayOfWeek dayOfWeek;
+
+        @NotNull(message = "Start time is required")
+        private LocalTime startTime;
+
+        @NotNull(message = "End time is required")
+        private LocalTime endTime;
+    }
+}
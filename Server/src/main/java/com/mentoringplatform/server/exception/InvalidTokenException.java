@@ -0,0 +1,11 @@
+package com.mentoringplatform.server.exception;
+
+/**
+ * Thrown when a refresh token is malformed, expired, already used or revoked; surfaced as HTTP 401.
+ */
+public class InvalidTokenException extends RuntimeException {
+    
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.mentoringplatform.server.exception;
+
+/**
+ * Thrown when a booking overlaps time that is already taken; surfaced as HTTP 409. Conflicts that clear
+ * by themselves (a busy booking lock, another mentee's hold) carry a retry delay and are sent with Retry-After.
+ */
+public class SlotConflictException extends RuntimeException {
+    
+    // Null when the conflict is final for this request
+    private final Integer retryAfterSeconds;
+    
+    public SlotConflictException(String message) {
+        super(message);
+        this.retryAfterSeconds = null;
+    }
+    
+    public SlotConflictException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = null;
+    }
+    
+    public SlotConflictException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public SlotConflictException(String message, int retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public Integer getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
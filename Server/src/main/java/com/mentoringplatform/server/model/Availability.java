@@ -10,8 +10,10 @@ import java.time.LocalTime;
 @Table(name = "availabilities")
 public class Availability {
     
+    // Sequence ids (not IDENTITY) so Hibernate can batch inserts when a weekly template is replaced
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "availabilities_seq")
+    @SequenceGenerator(name = "availabilities_seq", sequenceName = "availabilities_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,51 @@
+package com.mentoringplatform.server.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One-off change to a mentor's weekly availability on a single date: either a blackout
+ * (vacation, whole or part of a day) or an extra window outside the usual hours.
+ */
+@Data
+@Entity
+@Table(name = "availability_exceptions",
+       indexes = @Index(name = "idx_availability_exceptions_mentor_date", columnList = "mentor_id, exception_date"))
+public class AvailabilityException {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "mentor_id", nullable = false)
+    private User mentor;
+    
+    @Column(name = "exception_date", nullable = false)
+    private LocalDate exceptionDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "exception_type", nullable = false, length = 20)
+    private ExceptionType exceptionType;
+    
+    // Null start and end on a blackout closes the whole day
+    @Column(name = "start_time")
+    private LocalTime startTime;
+    
+    @Column(name = "end_time")
+    private LocalTime endTime;
+    
+    @Column(name = "reason", length = 255)
+    private String reason;
+    
+    public enum ExceptionType {
+        BLACKOUT,
+        EXTRA
+    }
+    
+    public boolean isWholeDay() {
+        return startTime == null && endTime == null;
+    }
+}
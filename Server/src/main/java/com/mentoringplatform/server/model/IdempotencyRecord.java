@@ -0,0 +1,45 @@
+package com.mentoringplatform.server.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a mutation sent with an Idempotency-Key, shared by all nodes so a retry that
+ * lands on another instance still replays the original response. The row is inserted as a pending
+ * claim (no status yet) before the mutation runs, so the unique key admits one execution cluster-wide.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_records",
+       uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_records_user_key", columnNames = {"username", "idempotency_key"}),
+       indexes = @Index(name = "idx_idempotency_records_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "username", nullable = false, length = 100)
+    private String username;
+    
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+    
+    // SHA-256 of operation and request body; a reused key with a different request is rejected
+    @Column(name = "request_fingerprint", nullable = false, length = 64)
+    private String requestFingerprint;
+    
+    // Null while the claiming request is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+    
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,39 @@
+package com.mentoringplatform.server.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Id ({@code jti}) of a token revoked before it expired: a signed-out access token or a used or signed-out
+ * refresh token. Rows are only needed until the token would have expired anyway.
+ */
+@Data
+@Entity
+@Table(name = "revoked_tokens",
+       indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+    
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt = LocalDateTime.now();
+    
+    // Only access token ids go into the in-memory filter; refresh tokens are checked against this table
+    @Enumerated(EnumType.STRING)
+    @Column(name = "token_type", nullable = false, length = 10, columnDefinition = "varchar(10) default 'ACCESS'")
+    private TokenType tokenType = TokenType.ACCESS;
+    
+    public enum TokenType {
+        ACCESS,
+        REFRESH
+    }
+}
@@ -6,11 +6,21 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions",
+       indexes = {
+           // Keyset pagination of session lists on (scheduledDateTime, id) per participant
+           @Index(name = "idx_sessions_mentor_time_id", columnList = "mentor_id, scheduled_date_time, id"),
+           @Index(name = "idx_sessions_mentee_time_id", columnList = "mentee_id, scheduled_date_time, id"),
+           // Delta sync of changed sessions on (updatedAt, id) per participant
+           @Index(name = "idx_sessions_mentor_updated_id", columnList = "mentor_id, updated_at, id"),
+           @Index(name = "idx_sessions_mentee_updated_id", columnList = "mentee_id, updated_at, id")
+       })
 public class Session {
     
+    // Sequence ids (not IDENTITY) so Hibernate can batch inserts when a recurring series is booked
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -54,6 +64,11 @@ public class Session {
         REJECTED,   // Mentor rejected
         CANCELLED,  // Cancelled by either party
         COMPLETED,  // Session completed
-        NO_SHOW     // One party didn't show up
+        NO_SHOW;    // One party didn't show up
+
+        // Whether a session in this status occupies the mentor's calendar
+        public boolean isBlocking() {
+            return this != REJECTED && this != CANCELLED;
+        }
     }
 } 
\ No newline at end of file
@@ -33,6 +33,10 @@ public class User {
     private Set<String> roles = new HashSet<>();
 
     private boolean enabled = true;
+
+    // Carried in issued tokens; incrementing it revokes every token issued before
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion;
     
     // Profile fields for mentors
     @Column(name = "full_name")
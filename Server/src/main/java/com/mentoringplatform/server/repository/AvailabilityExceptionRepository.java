@@ -0,0 +1,28 @@
+package com.mentoringplatform.server.repository;
+
+import com.mentoringplatform.server.model.AvailabilityException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvailabilityExceptionRepository extends JpaRepository<AvailabilityException, Long> {
+    
+    // Exceptions for a mentor within [fromDate, toDate], sorted for a single linear merge with the weekly rules
+    @Query("SELECT e FROM AvailabilityException e WHERE e.mentor.id = :mentorId AND e.exceptionDate >= :fromDate AND e.exceptionDate <= :toDate ORDER BY e.exceptionDate ASC, e.startTime ASC")
+    List<AvailabilityException> findForMentorInDateRange(@Param("mentorId") Long mentorId,
+                                                         @Param("fromDate") LocalDate fromDate,
+                                                         @Param("toDate") LocalDate toDate);
+    
+    // Exceptions for every mentor within [fromDate, toDate], used for full index builds
+    @Query("SELECT e FROM AvailabilityException e WHERE e.exceptionDate >= :fromDate AND e.exceptionDate <= :toDate ORDER BY e.exceptionDate ASC, e.startTime ASC")
+    List<AvailabilityException> findInDateRange(@Param("fromDate") LocalDate fromDate,
+                                                @Param("toDate") LocalDate toDate);
+    
+    Optional<AvailabilityException> findByIdAndMentorId(Long id, Long mentorId);
+}
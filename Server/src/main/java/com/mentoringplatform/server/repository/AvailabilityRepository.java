@@ -2,6 +2,7 @@ package com.mentoringplatform.server.repository;
 
 import com.mentoringplatform.server.model.Availability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,4 +22,10 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
     // Find active availabilities for a mentor
     @Query("SELECT a FROM Availability a WHERE a.mentor.id = :mentorId AND a.isAvailable = true ORDER BY a.dayOfWeek ASC, a.startTime ASC")
     List<Availability> findActiveAvailabilitiesByMentorId(@Param("mentorId") Long mentorId);
+    
+    // Remove a mentor's whole weekly template in one statement
+    @Modifying
+    @Query("DELETE FROM Availability a WHERE a.mentor.id = :mentorId")
+    int deleteAllByMentorId(@Param("mentorId") Long mentorId);
+
 } 
\ No newline at end of file
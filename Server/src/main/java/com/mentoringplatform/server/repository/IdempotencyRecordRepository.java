@@ -0,0 +1,31 @@
+package com.mentoringplatform.server.repository;
+
+import com.mentoringplatform.server.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    // Frees a key whose record expired or whose claimant never finished (e.g. the node died mid-request)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id " +
+           "AND (r.expiresAt < :now OR (r.statusCode IS NULL AND r.createdAt < :abandonedBefore))")
+    int deleteIfAbandoned(@Param("id") Long id,
+                          @Param("now") LocalDateTime now,
+                          @Param("abandonedBefore") LocalDateTime abandonedBefore);
+}
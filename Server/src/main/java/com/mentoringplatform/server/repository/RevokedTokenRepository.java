@@ -0,0 +1,34 @@
+package com.mentoringplatform.server.repository;
+
+import com.mentoringplatform.server.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    
+    // Returns 0 when the id was already revoked, which makes using a refresh token a single atomic check
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (token_id, user_id, token_type, expires_at, revoked_at) " +
+                   "VALUES (:tokenId, :userId, :tokenType, :expiresAt, :now) ON CONFLICT (token_id) DO NOTHING",
+           nativeQuery = true)
+    int revoke(@Param("tokenId") String tokenId,
+               @Param("userId") Long userId,
+               @Param("tokenType") String tokenType,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+    
+    @Query("SELECT r.tokenId FROM RevokedToken r WHERE r.tokenType = :tokenType AND r.expiresAt > :now")
+    List<String> findUnexpiredTokenIds(@Param("tokenType") RevokedToken.TokenType tokenType,
+                                       @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,12 +1,17 @@
 package com.mentoringplatform.server.repository;
 
+import com.mentoringplatform.server.dto.SessionResponse;
 import com.mentoringplatform.server.model.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Repository
@@ -18,21 +23,175 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     // Find sessions by mentee
     List<Session> findByMenteeIdOrderByScheduledDateTimeDesc(Long menteeId);
     
-    // Find upcoming sessions for a user (as mentor or mentee)
-    @Query("SELECT s FROM Session s WHERE (s.mentor.id = :userId OR s.mentee.id = :userId) " +
-           "AND s.scheduledDateTime >= :now AND s.status IN ('PENDING', 'CONFIRMED') " +
-           "ORDER BY s.scheduledDateTime ASC")
-    List<Session> findUpcomingSessionsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    // Sessions projected straight into the response with both users joined; no entity or roles loading
+    String SESSION_RESPONSE_SELECT = "SELECT new com.mentoringplatform.server.dto.SessionResponse(" +
+           "s.id, mentor.id, mentor.name, mentor.username, mentee.id, mentee.name, mentee.username, " +
+           "s.scheduledDateTime, s.durationMinutes, s.status, s.sessionType, s.notes, s.createdAt, s.updatedAt) " +
+           "FROM Session s JOIN s.mentor mentor JOIN s.mentee mentee ";
+    
+    // Per-user lists never filter on (mentor OR mentee): each side is its own range scan on
+    // (mentor_id | mentee_id, scheduled_date_time, id) and the two ordered results are merged (a UNION ALL in Java).
+    
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentor.id = :userId AND s.scheduledDateTime >= :now AND s.status IN ('PENDING', 'CONFIRMED') " +
+           "AND s.scheduledDateTime >= :afterTime AND (s.scheduledDateTime > :afterTime OR s.id > :afterId) " +
+           "ORDER BY s.scheduledDateTime ASC, s.id ASC")
+    List<SessionResponse> findUpcomingSessionPageAsMentor(@Param("userId") Long userId,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("afterTime") LocalDateTime afterTime,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+    
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentee.id = :userId AND s.scheduledDateTime >= :now AND s.status IN ('PENDING', 'CONFIRMED') " +
+           "AND s.scheduledDateTime >= :afterTime AND (s.scheduledDateTime > :afterTime OR s.id > :afterId) " +
+           "ORDER BY s.scheduledDateTime ASC, s.id ASC")
+    List<SessionResponse> findUpcomingSessionPageAsMentee(@Param("userId") Long userId,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("afterTime") LocalDateTime afterTime,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+    
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentor.id = :userId AND s.scheduledDateTime < :now " +
+           "AND s.scheduledDateTime <= :beforeTime AND (s.scheduledDateTime < :beforeTime OR s.id < :beforeId) " +
+           "ORDER BY s.scheduledDateTime DESC, s.id DESC")
+    List<SessionResponse> findPastSessionPageAsMentor(@Param("userId") Long userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("beforeTime") LocalDateTime beforeTime,
+                                                      @Param("beforeId") Long beforeId,
+                                                      Pageable pageable);
+    
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentee.id = :userId AND s.scheduledDateTime < :now " +
+           "AND s.scheduledDateTime <= :beforeTime AND (s.scheduledDateTime < :beforeTime OR s.id < :beforeId) " +
+           "ORDER BY s.scheduledDateTime DESC, s.id DESC")
+    List<SessionResponse> findPastSessionPageAsMentee(@Param("userId") Long userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("beforeTime") LocalDateTime beforeTime,
+                                                      @Param("beforeId") Long beforeId,
+                                                      Pageable pageable);
+    
+    // Find a page of upcoming sessions for a user (as mentor or mentee) after the keyset (afterTime, afterId),
+    // ordered by (scheduledDateTime, id). The first page passes (now, Long.MIN_VALUE).
+    default List<SessionResponse> findUpcomingSessionPage(Long userId, LocalDateTime now,
+                                                          LocalDateTime afterTime, Long afterId, Pageable pageable) {
+        return mergeOrdered(
+                findUpcomingSessionPageAsMentor(userId, now, afterTime, afterId, pageable),
+                findUpcomingSessionPageAsMentee(userId, now, afterTime, afterId, pageable),
+                Comparator.comparing(SessionResponse::getScheduledDateTime).thenComparing(SessionResponse::getId),
+                pageable.getPageSize());
+    }
+    
+    // Find a page of past sessions for a user before the keyset (beforeTime, beforeId), newest first.
+    // The first page passes (now, Long.MAX_VALUE).
+    default List<SessionResponse> findPastSessionPage(Long userId, LocalDateTime now,
+                                                      LocalDateTime beforeTime, Long beforeId, Pageable pageable) {
+        return mergeOrdered(
+                findPastSessionPageAsMentor(userId, now, beforeTime, beforeId, pageable),
+                findPastSessionPageAsMentee(userId, now, beforeTime, beforeId, pageable),
+                Comparator.comparing(SessionResponse::getScheduledDateTime).thenComparing(SessionResponse::getId).reversed(),
+                pageable.getPageSize());
+    }
+    
+    // Sessions created or modified after the watermark (afterTime, afterId), in (updatedAt, id) order
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentor.id = :userId " +
+           "AND s.updatedAt >= :afterTime AND (s.updatedAt > :afterTime OR s.id > :afterId) " +
+           "ORDER BY s.updatedAt ASC, s.id ASC")
+    List<SessionResponse> findChangedSessionsAsMentor(@Param("userId") Long userId,
+                                                      @Param("afterTime") LocalDateTime afterTime,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    @Query(SESSION_RESPONSE_SELECT +
+           "WHERE mentee.id = :userId " +
+           "AND s.updatedAt >= :afterTime AND (s.updatedAt > :afterTime OR s.id > :afterId) " +
+           "ORDER BY s.updatedAt ASC, s.id ASC")
+    List<SessionResponse> findChangedSessionsAsMentee(@Param("userId") Long userId,
+                                                      @Param("afterTime") LocalDateTime afterTime,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    default List<SessionResponse> findChangedSessions(Long userId, LocalDateTime afterTime, Long afterId, Pageable pageable) {
+        return mergeOrdered(
+                findChangedSessionsAsMentor(userId, afterTime, afterId, pageable),
+                findChangedSessionsAsMentee(userId, afterTime, afterId, pageable),
+                Comparator.comparing(SessionResponse::getUpdatedAt).thenComparing(SessionResponse::getId),
+                pageable.getPageSize());
+    }
+    
+    // Find sessions by status for a user, newest first
+    List<Session> findByMentorIdAndStatusOrderByScheduledDateTimeDescIdDesc(Long mentorId, Session.SessionStatus status);
+    
+    List<Session> findByMenteeIdAndStatusOrderByScheduledDateTimeDescIdDesc(Long menteeId, Session.SessionStatus status);
     
-    // Find past sessions for a user
-    @Query("SELECT s FROM Session s WHERE (s.mentor.id = :userId OR s.mentee.id = :userId) " +
-           "AND s.scheduledDateTime < :now ORDER BY s.scheduledDateTime DESC")
-    List<Session> findPastSessionsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    default List<Session> findSessionsByUserIdAndStatus(Long userId, Session.SessionStatus status) {
+        return mergeOrdered(
+                findByMentorIdAndStatusOrderByScheduledDateTimeDescIdDesc(userId, status),
+                findByMenteeIdAndStatusOrderByScheduledDateTimeDescIdDesc(userId, status),
+                Comparator.comparing(Session::getScheduledDateTime).thenComparing(Session::getId).reversed(),
+                Integer.MAX_VALUE);
+    }
     
-    // Find sessions by status for a user
-    @Query("SELECT s FROM Session s WHERE (s.mentor.id = :userId OR s.mentee.id = :userId) " +
-           "AND s.status = :status ORDER BY s.scheduledDateTime DESC")
-    List<Session> findSessionsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Session.SessionStatus status);
+    // Merges two lists already sorted by the same total order, keeping at most limit elements
+    private static <T> List<T> mergeOrdered(List<T> first, List<T> second, Comparator<? super T> order, int limit) {
+        List<T> merged = new ArrayList<>(Math.min(first.size() + second.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            int comparison = i >= first.size() ? 1 : j >= second.size() ? -1 : order.compare(first.get(i), second.get(j));
+            if (comparison == 0) {
+                // A session where the user is both mentor and mentee comes back from both sides
+                j++;
+            }
+            merged.add(comparison <= 0 ? first.get(i++) : second.get(j++));
+        }
+        return merged;
+    }
+    
+    // Lock a chunk of CONFIRMED sessions that ended before the cutoff. SKIP LOCKED lets sweepers on
+    // several nodes take disjoint chunks instead of waiting on each other.
+    @Query(value = "SELECT s.id AS id, s.mentor_id AS mentorId, s.mentee_id AS menteeId FROM sessions s " +
+                   "WHERE s.status = 'CONFIRMED' AND s.scheduled_date_time < :cutoff " +
+                   "AND s.scheduled_date_time + s.duration_minutes * INTERVAL '1 minute' <= :cutoff " +
+                   "ORDER BY s.scheduled_date_time " +
+                   "LIMIT :chunkSize " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ExpiredSession> lockExpiredConfirmedSessions(@Param("cutoff") LocalDateTime cutoff,
+                                                      @Param("chunkSize") int chunkSize);
+    
+    // Lock a chunk of PENDING sessions the mentor never answered before they were due to start
+    @Query(value = "SELECT s.id AS id, s.mentor_id AS mentorId, s.mentee_id AS menteeId FROM sessions s " +
+                   "WHERE s.status = 'PENDING' AND s.scheduled_date_time < :cutoff " +
+                   "ORDER BY s.scheduled_date_time " +
+                   "LIMIT :chunkSize " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ExpiredSession> lockUnansweredSessions(@Param("cutoff") LocalDateTime cutoff,
+                                                @Param("chunkSize") int chunkSize);
+    
+    @Modifying
+    @Query(value = "UPDATE sessions SET status = 'CANCELLED', updated_at = :now " +
+                   "WHERE id IN (:ids) AND status = 'PENDING'",
+           nativeQuery = true)
+    int markCancelled(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Sessions someone joined (a SESSION_JOIN notification exists) are completed
+    @Modifying
+    @Query(value = "UPDATE sessions SET status = 'COMPLETED', updated_at = :now " +
+                   "WHERE id IN (:ids) AND status = 'CONFIRMED' AND EXISTS (" +
+                   "SELECT 1 FROM user_notifications n WHERE n.session_id = sessions.id AND n.notification_type = 'SESSION_JOIN')",
+           nativeQuery = true)
+    int markCompleted(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Whatever is still CONFIRMED after markCompleted was never joined
+    @Modifying
+    @Query(value = "UPDATE sessions SET status = 'NO_SHOW', updated_at = :now " +
+                   "WHERE id IN (:ids) AND status = 'CONFIRMED'",
+           nativeQuery = true)
+    int markNoShow(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
     
     // Find sessions for a mentor in a time range (for conflict detection)
     @Query("SELECT s FROM Session s WHERE s.mentor.id = :mentorId " +
@@ -42,6 +201,30 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
                                                    @Param("startTime") LocalDateTime startTime, 
                                                    @Param("endTime") LocalDateTime endTime);
     
+    // Find sessions that block a mentor's time, starting in a range (single-query conflict detection)
+    @Query("SELECT s FROM Session s WHERE s.mentor.id = :mentorId " +
+           "AND s.status NOT IN ('CANCELLED', 'REJECTED') " +
+           "AND s.scheduledDateTime >= :startTime AND s.scheduledDateTime < :endTime " +
+           "ORDER BY s.scheduledDateTime ASC")
+    List<Session> findBlockingSessionsForMentorInTimeRange(@Param("mentorId") Long mentorId,
+                                                           @Param("startTime") LocalDateTime startTime,
+                                                           @Param("endTime") LocalDateTime endTime);
+    
+    // Find a mentee's own pending or confirmed sessions starting in a range (mutual free/busy)
+    @Query("SELECT s FROM Session s WHERE s.mentee.id = :menteeId " +
+           "AND s.status IN ('PENDING', 'CONFIRMED') " +
+           "AND s.scheduledDateTime >= :startTime AND s.scheduledDateTime < :endTime " +
+           "ORDER BY s.scheduledDateTime ASC")
+    List<Session> findCommittedSessionsForMenteeInTimeRange(@Param("menteeId") Long menteeId,
+                                                            @Param("startTime") LocalDateTime startTime,
+                                                            @Param("endTime") LocalDateTime endTime);
+    
+    // Find sessions that block any mentor's time, starting in a range (bulk index builds)
+    @Query("SELECT s FROM Session s WHERE s.status NOT IN ('CANCELLED', 'REJECTED') " +
+           "AND s.scheduledDateTime >= :startTime AND s.scheduledDateTime < :endTime")
+    List<Session> findBlockingSessionsInTimeRange(@Param("startTime") LocalDateTime startTime,
+                                                  @Param("endTime") LocalDateTime endTime);
+    
     // Find active sessions for a mentor in a time range (for availability display)
     @Query("SELECT s FROM Session s WHERE s.mentor.id = :mentorId " +
            "AND s.status IN ('PENDING', 'CONFIRMED') " +
@@ -50,4 +233,10 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     List<Session> findActiveSessionsForMentorInTimeRange(@Param("mentorId") Long mentorId, 
                                                          @Param("startTime") LocalDateTime startTime, 
                                                          @Param("endTime") LocalDateTime endTime);
-} 
\ No newline at end of file
+    
+    interface ExpiredSession {
+        Long getId();
+        Long getMentorId();
+        Long getMenteeId();
+    }
+}
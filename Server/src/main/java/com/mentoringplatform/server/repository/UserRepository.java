@@ -20,6 +20,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT DISTINCT u FROM User u JOIN u.roles r WHERE r = 'MENTOR' AND u.enabled = true")
     List<User> findAllMentors();
     
+    @Query("SELECT DISTINCT u.id FROM User u JOIN u.roles r WHERE r = 'MENTOR' AND u.enabled = true")
+    List<Long> findAllMentorIds();
+    
     @Query("SELECT DISTINCT u FROM User u JOIN u.roles r WHERE r = 'MENTOR' AND u.enabled = true AND u.name IS NOT NULL")
     List<User> findAllMentorsWithProfiles();
+    
+    // Users whose earlier tokens were revoked; everyone else is still on version 0
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<TokenVersionView> findRevokedTokenVersions();
+    
+    interface TokenVersionView {
+        Long getId();
+        int getTokenVersion();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.mentoringplatform.server.security;
+
+import com.mentoringplatform.server.dto.AuthCacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting caches in front of request authentication: claims of recently verified tokens
+ * (keyed by token hash, so hot clients skip signature verification and parsing) and DB-backed principals
+ * (keyed by username, so they skip the user and roles queries). Revocation is still checked on every hit.
+ * Entries for a user are evicted when their profile, roles or enabled flag change on this instance;
+ * elsewhere the TTL bounds staleness.
+ */
+@Component
+public class AuthenticationCache {
+
+    private final LinkedHashMap<String, CachedClaims> tokens;
+    private final LinkedHashMap<String, CachedUser> users;
+    private final int maxTokens;
+    private final int maxUsers;
+    private final long ttlNanos;
+
+    private long tokenHits;
+    private long tokenMisses;
+    private long userHits;
+    private long userMisses;
+    private long userEvictions;
+
+    public AuthenticationCache(@Value("${jwt.cache.max-tokens:10000}") int maxTokens,
+                               @Value("${jwt.cache.max-users:10000}") int maxUsers,
+                               @Value("${jwt.cache.ttl-ms:60000}") long ttlMillis) {
+        this.maxTokens = maxTokens;
+        this.maxUsers = maxUsers;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > AuthenticationCache.this.maxTokens;
+            }
+        };
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > AuthenticationCache.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Claims of a token verified within the TTL (and not yet expired), otherwise verifies it with the given
+     * function and caches a non-null result.
+     */
+    public Claims verifiedClaims(String token, Function<String, Claims> verifier) {
+        String key = hash(token);
+        long now = System.nanoTime();
+        synchronized (tokens) {
+            CachedClaims cached = tokens.get(key);
+            if (cached != null && now < cached.expiresAt) {
+                tokenHits++;
+                return cached.claims;
+            }
+            tokenMisses++;
+        }
+
+        Claims claims = verifier.apply(token);
+        if (claims != null) {
+            long expiresAt = now + ttlNanos;
+            if (claims.getExpiration() != null) {
+                long untilExpiry = TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime() - System.currentTimeMillis());
+                expiresAt = Math.min(expiresAt, now + untilExpiry);
+            }
+            synchronized (tokens) {
+                tokens.put(key, new CachedClaims(claims, expiresAt));
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * DB-backed principal loaded within the TTL, otherwise loads and caches it.
+     */
+    public UserDetails user(String username, Supplier<UserDetails> loader) {
+        long now = System.nanoTime();
+        synchronized (users) {
+            CachedUser cached = users.get(username);
+            if (cached != null && now < cached.expiresAt) {
+                userHits++;
+                return cached.userDetails;
+            }
+            userMisses++;
+        }
+
+        UserDetails userDetails = loader.get();
+        synchronized (users) {
+            users.put(username, new CachedUser(userDetails, now + ttlNanos));
+        }
+        return userDetails;
+    }
+
+    /**
+     * Drops a user's cached principal after their profile, roles or enabled flag changed. Inside a transaction
+     * this happens after commit, so a concurrent lookup cannot re-cache the old row.
+     */
+    public void evictUser(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictUserNow(username);
+                }
+            });
+        } else {
+            evictUserNow(username);
+        }
+    }
+
+    private void evictUserNow(String username) {
+        synchronized (users) {
+            if (users.remove(username) != null) {
+                userEvictions++;
+            }
+        }
+    }
+
+    public AuthCacheStats stats() {
+        AuthCacheStats stats = new AuthCacheStats();
+        synchronized (tokens) {
+            stats.setCachedTokens(tokens.size());
+            stats.setMaxTokens(maxTokens);
+            stats.setTokenHits(tokenHits);
+            stats.setTokenMisses(tokenMisses);
+        }
+        synchronized (users) {
+            stats.setCachedUsers(users.size());
+            stats.setMaxUsers(maxUsers);
+            stats.setUserHits(userHits);
+            stats.setUserMisses(userMisses);
+            stats.setUserEvictions(userEvictions);
+        }
+        return stats;
+    }
+
+    // Raw bearer tokens are never kept in memory
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class CachedUser {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        private CachedUser(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
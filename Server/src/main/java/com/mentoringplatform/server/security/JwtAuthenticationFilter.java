@@ -1,5 +1,6 @@
 package com.mentoringplatform.server.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,10 +19,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    // Load the principal from the database (through the cache) instead of building it from claims
+    private final boolean databasePrincipal;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   UserDetailsService userDetailsService,
+                                   AuthenticationCache authenticationCache,
+                                   boolean databasePrincipal) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.databasePrincipal = databasePrincipal;
     }
 
     @Override
@@ -30,9 +39,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Verified once; the principal comes from the claims, so no user lookup per request
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = databasePrincipal ? null : tokenProvider.getPrincipal(claims);
+                if (userDetails == null) {
+                    // DB-backed principal: configured, or a token issued before identity claims were embedded
+                    String username = claims.getSubject();
+                    userDetails = authenticationCache.user(username, () -> userDetailsService.loadUserByUsername(username));
+                }
                 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
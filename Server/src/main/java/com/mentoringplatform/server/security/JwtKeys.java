@@ -0,0 +1,290 @@
+package com.mentoringplatform.server.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signing and verification keys for JWTs. With a keystore configured, tokens are signed with an EC key
+ * (ES256, ES384 or ES512 by curve) and carry its alias as {@code kid}; every EC entry, including
+ * certificate-only ones kept for tokens signed before a rotation, is published as a JWK so other services
+ * can verify tokens without a shared secret. The keystore is reloaded when the file changes, so keys can be
+ * added and retired without a restart. A new key only starts signing once it has been published for a full
+ * {@link #JWKS_MAX_AGE}, so verifiers holding a cached key set already know it. Without a keystore, tokens are
+ * signed with the HMAC secret as before; with both, the secret only verifies HS256 tokens issued before the switch.
+ */
+@Component
+public class JwtKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeys.class);
+
+    /**
+     * How long verifiers may cache the published key set.
+     */
+    public static final Duration JWKS_MAX_AGE = Duration.ofMinutes(5);
+
+    private final String secret;
+    private final String keystorePath;
+    private final char[] keystorePassword;
+    private final String activeKid;
+    // Other instances publish a new key up to one reload interval after this one
+    private final long promotionDelayMillis;
+    private final Date hmacIssuedBefore;
+    // When this instance first published each key
+    private final Map<String, Long> firstSeen = new HashMap<>();
+
+    private volatile KeySet keySet;
+    private long loadedModified;
+
+    public JwtKeys(@Value("${jwt.secret:}") String secret,
+                   @Value("${jwt.keystore.path:}") String keystorePath,
+                   @Value("${jwt.keystore.password:}") String keystorePassword,
+                   @Value("${jwt.keystore.active-kid:}") String activeKid,
+                   @Value("${jwt.keystore.reload-ms:60000}") long reloadMillis,
+                   @Value("${jwt.hmac.issued-before:}") String hmacIssuedBefore) {
+        this.secret = secret;
+        this.keystorePath = keystorePath;
+        this.keystorePassword = keystorePassword.toCharArray();
+        this.activeKid = activeKid;
+        this.promotionDelayMillis = JWKS_MAX_AGE.toMillis() + reloadMillis;
+        this.hmacIssuedBefore = StringUtils.hasText(hmacIssuedBefore) ? Date.from(Instant.parse(hmacIssuedBefore)) : null;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        Key hmacKey = StringUtils.hasText(secret) ? Keys.hmacShaKeyFor(secret.getBytes()) : null;
+        if (!StringUtils.hasText(keystorePath)) {
+            if (hmacKey == null) {
+                throw new IllegalStateException("Either jwt.secret or jwt.keystore.path must be configured");
+            }
+            if (hmacIssuedBefore != null) {
+                throw new IllegalStateException("jwt.hmac.issued-before requires jwt.keystore.path");
+            }
+            keySet = new KeySet(null, hmacKey, hmacKey, Collections.emptyMap(), null);
+            return;
+        }
+        if (hmacKey != null && hmacIssuedBefore == null) {
+            log.warn("jwt.secret still verifies HS256 tokens of any age; set jwt.hmac.issued-before to the keystore "
+                    + "switch, and remove the secret once jwt.refresh-expiration has passed since then");
+        }
+        keySet = load(hmacKey);
+    }
+
+    /**
+     * Picks up added, re-activated or removed keys, and promotes a new key to signing once it has been published
+     * long enough. A keystore that fails to load leaves the current keys in place.
+     */
+    @Scheduled(initialDelayString = "${jwt.keystore.reload-ms:60000}",
+               fixedDelayString = "${jwt.keystore.reload-ms:60000}")
+    public synchronized void reload() {
+        if (!StringUtils.hasText(keystorePath)) {
+            return;
+        }
+        try {
+            KeySet current = keySet;
+            boolean promotionDue = current.nextPromotion != null && System.currentTimeMillis() >= current.nextPromotion;
+            if (promotionDue || Files.getLastModifiedTime(Path.of(keystorePath)).toMillis() != loadedModified) {
+                keySet = load(current.hmacKey);
+            }
+        } catch (Exception e) {
+            log.error("Could not reload JWT keystore {}; keeping the current keys", keystorePath, e);
+        }
+    }
+
+    private synchronized KeySet load(Key hmacKey) throws Exception {
+        Path path = Path.of(keystorePath);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            keyStore.load(in, keystorePassword);
+        }
+
+        long now = System.currentTimeMillis();
+        boolean initial = keySet == null;
+        Map<String, ECPublicKey> verificationKeys = new LinkedHashMap<>();
+        Map<String, Long> publishedAt = new LinkedHashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (certificate == null || !(certificate.getPublicKey() instanceof ECPublicKey publicKey)) {
+                log.warn("Skipping JWT keystore entry {}: not an EC key", alias);
+                continue;
+            }
+            verificationKeys.put(alias, publicKey);
+            if (keyStore.isKeyEntry(alias)) {
+                // At startup the keys are taken to be published since their creation; a key added later
+                // is published from the reload that finds it
+                Date created = keyStore.getCreationDate(alias);
+                long createdMillis = created != null ? created.getTime() : 0;
+                firstSeen.putIfAbsent(alias, initial ? createdMillis : now);
+                publishedAt.put(alias, Math.max(createdMillis, firstSeen.get(alias)));
+            }
+        }
+        firstSeen.keySet().retainAll(verificationKeys.keySet());
+
+        // The configured key signs; otherwise the newest key published for long enough, or failing that the oldest
+        String signingKid = null;
+        Long nextPromotion = null;
+        if (StringUtils.hasText(activeKid)) {
+            if (!publishedAt.containsKey(activeKid)) {
+                throw new IllegalStateException("JWT keystore has no private key for active kid " + activeKid);
+            }
+            signingKid = activeKid;
+        } else {
+            String oldestKid = null;
+            for (Map.Entry<String, Long> entry : publishedAt.entrySet()) {
+                long published = entry.getValue();
+                if (oldestKid == null || published < publishedAt.get(oldestKid)) {
+                    oldestKid = entry.getKey();
+                }
+                if (published + promotionDelayMillis > now) {
+                    nextPromotion = nextPromotion == null
+                            ? published + promotionDelayMillis
+                            : Math.min(nextPromotion, published + promotionDelayMillis);
+                } else if (signingKid == null || published > publishedAt.get(signingKid)) {
+                    signingKid = entry.getKey();
+                }
+            }
+            if (oldestKid == null) {
+                throw new IllegalStateException("JWT keystore has no EC private key");
+            }
+            if (signingKid == null) {
+                log.warn("No JWT signing key has been published for {} ms yet; signing with the oldest, {}",
+                        promotionDelayMillis, oldestKid);
+                signingKid = oldestKid;
+            }
+        }
+        PrivateKey signingKey = (PrivateKey) keyStore.getKey(signingKid, keystorePassword);
+
+        loadedModified = modified;
+        log.info("Loaded {} JWT verification keys; signing with kid {}", verificationKeys.size(), signingKid);
+        if (nextPromotion != null) {
+            log.info("A newer JWT signing key becomes eligible at {}", Instant.ofEpochMilli(nextPromotion));
+        }
+        return new KeySet(signingKid, signingKey, hmacKey, verificationKeys, nextPromotion);
+    }
+
+    /**
+     * Signs with the active key, naming it in the {@code kid} header (no {@code kid} when signing with the secret).
+     */
+    public String sign(JwtBuilder builder) {
+        KeySet current = keySet;
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, current.signingKid)
+                .signWith(current.signingKey)
+                .compact();
+    }
+
+    /**
+     * Key that may verify a token with this header, or null. The algorithm must match the key type, so an
+     * HS256 token can never be checked against a public key (or an ES256 token against the secret). HS256
+     * tokens issued after {@code jwt.hmac.issued-before} are refused.
+     */
+    public Key verificationKey(String kid, String algorithm, Date issuedAt) {
+        KeySet current = keySet;
+        SignatureAlgorithm alg = SignatureAlgorithm.forName(algorithm);
+        if (alg.isHmac()) {
+            if (kid != null || (hmacIssuedBefore != null && (issuedAt == null || !issuedAt.before(hmacIssuedBefore)))) {
+                return null;
+            }
+            return current.hmacKey;
+        }
+        if (!alg.isEllipticCurve() || kid == null) {
+            return null;
+        }
+        ECPublicKey key = current.verificationKeys.get(kid);
+        return key != null && jwsAlgorithm(key).equals(alg.getValue()) ? key : null;
+    }
+
+    /**
+     * Public keys as a JWK Set (RFC 7517), in the order they appear in the keystore.
+     */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        keySet.verificationKeys.forEach((kid, key) -> {
+            int size = (key.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("use", "sig");
+            jwk.put("alg", jwsAlgorithm(key));
+            jwk.put("kid", kid);
+            jwk.put("crv", curveName(key));
+            jwk.put("x", base64Url(key.getW().getAffineX(), size));
+            jwk.put("y", base64Url(key.getW().getAffineY(), size));
+            keys.add(jwk);
+        });
+        return Map.of("keys", keys);
+    }
+
+    private static String jwsAlgorithm(ECPublicKey key) {
+        return switch (key.getParams().getCurve().getField().getFieldSize()) {
+            case 256 -> "ES256";
+            case 384 -> "ES384";
+            case 521 -> "ES512";
+            default -> "unsupported";
+        };
+    }
+
+    private static String curveName(ECPublicKey key) {
+        return switch (key.getParams().getCurve().getField().getFieldSize()) {
+            case 256 -> "P-256";
+            case 384 -> "P-384";
+            case 521 -> "P-521";
+            default -> "unsupported";
+        };
+    }
+
+    // Fixed-length big-endian coordinate: BigInteger adds a sign byte or drops leading zeros
+    private static String base64Url(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[size];
+        int length = Math.min(bytes.length, size);
+        System.arraycopy(bytes, bytes.length - length, padded, size - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+
+    private static class KeySet {
+        private final String signingKid;
+        private final Key signingKey;
+        private final Key hmacKey;
+        private final Map<String, ECPublicKey> verificationKeys;
+        // When a key not yet signing has been published long enough to take over, or null
+        private final Long nextPromotion;
+
+        private KeySet(String signingKid, Key signingKey, Key hmacKey, Map<String, ECPublicKey> verificationKeys,
+                       Long nextPromotion) {
+            this.signingKid = signingKid;
+            this.signingKey = signingKey;
+            this.hmacKey = hmacKey;
+            this.verificationKeys = verificationKeys;
+            this.nextPromotion = nextPromotion;
+        }
+    }
+}
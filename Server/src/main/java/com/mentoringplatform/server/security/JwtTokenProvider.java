@@ -1,11 +1,8 @@
 package com.mentoringplatform.server.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
@@ -15,26 +12,64 @@ import java.util.List;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Claims that let a request be authenticated without loading the user
+    public static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    // Refresh tokens are only accepted by the refresh endpoint, never as bearer tokens
+    static final String CLAIM_TOKEN_TYPE = "typ";
+    static final String TYPE_ACCESS = "access";
+    static final String TYPE_REFRESH = "refresh";
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private Key key;
-
-    @PostConstruct
-    public void init() {
-        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpiration;
+
+    private final TokenVersions tokenVersions;
+    private final AuthenticationCache authenticationCache;
+    private final RevokedTokens revokedTokens;
+    private final JwtKeys jwtKeys;
+    // Thread-safe once built; reused for every request instead of building one per parse.
+    // Keys are resolved per token from its header, so rotated keys need no new parser.
+    private final JwtParser parser;
+
+    public JwtTokenProvider(TokenVersions tokenVersions,
+                            AuthenticationCache authenticationCache,
+                            RevokedTokens revokedTokens,
+                            JwtKeys jwtKeys) {
+        this.tokenVersions = tokenVersions;
+        this.authenticationCache = authenticationCache;
+        this.revokedTokens = revokedTokens;
+        this.jwtKeys = jwtKeys;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // jjwt 0.11 declares the header raw here; a parameterized override would not compile
+                    @SuppressWarnings("rawtypes")
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = jwtKeys.verificationKey(header.getKeyId(), header.getAlgorithm(), claims.getIssuedAt());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key");
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
-    public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+    /**
+     * Short-lived bearer token carrying everything needed to authenticate a request.
+     */
+    public String generateAccessToken(UserPrincipal userPrincipal) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
@@ -42,62 +77,111 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        return jwtKeys.sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
-                .claim("roles", roles)
+                .claim(CLAIM_TOKEN_TYPE, TYPE_ACCESS)
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(key)
-                .compact();
+                .setExpiration(expiryDate));
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Long-lived, single-use token that only identifies the user; roles are re-read when it is used.
+     */
+    public String generateRefreshToken(UserPrincipal userPrincipal) {
+        Date now = new Date();
+        return jwtKeys.sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_TOKEN_TYPE, TYPE_REFRESH)
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + refreshExpiration)));
+    }
 
-        return claims.getSubject();
+    public long getAccessTokenExpirationMillis() {
+        return jwtExpiration;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token once and returns its claims, or null when it is malformed, forged, expired or revoked.
+     */
+    public Claims parseClaims(String token) {
+        // Recently verified tokens skip signature verification and parsing
+        Claims claims = authenticationCache.verifiedClaims(token, this::verify);
+        if (claims == null) {
+            return null;
+        }
+        // Checked on every request, cached or not
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (userId != null && tokenVersion != null && tokenVersions.isRevoked(userId, tokenVersion)) {
+            return null;
+        }
+        if (TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE, String.class))) {
+            return null;
+        }
+        // In-memory filter; a rare false positive makes the client refresh, where revocation is checked exactly
+        if (revokedTokens.mightBeRevoked(claims.getId())) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies a refresh token's signature, expiry and type, or returns null. Not cached: refresh is rare,
+     * and whether it was already used is checked against the database by the caller.
+     */
+    public Claims parseRefreshClaims(String token) {
+        Claims claims = verify(token);
+        if (claims == null || !TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE, String.class))) {
+            return null;
+        }
+        return claims;
+    }
+
+    private Claims verify(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        String username = claims.getSubject();
-        String roles = claims.get("roles", String.class);
-        
-        // Create authorities from roles
+    /**
+     * Builds the principal from verified claims, or returns null for tokens issued before ids were embedded.
+     */
+    public UserPrincipal getPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            return null;
+        }
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return new UserPrincipal(
+            userId,
+            claims.getSubject(),
+            claims.get(CLAIM_EMAIL, String.class),
+            "", // Never carried in tokens
+            toAuthorities(claims.get(CLAIM_ROLES, String.class)),
+            true, // Tokens are only issued to enabled users; disabling one revokes its tokens
+            tokenVersion != null ? tokenVersion : 0
+        );
+    }
+
+    private static List<GrantedAuthority> toAuthorities(String roles) {
         List<GrantedAuthority> authorities = new ArrayList<>();
         if (roles != null) {
             for (String role : roles.split(",")) {
-                authorities.add(new SimpleGrantedAuthority(role));
+                if (!role.isEmpty()) {
+                    authorities.add(new SimpleGrantedAuthority(role));
+                }
             }
         }
-        
-        // Create a simple user principal for WebSocket authentication
-        UserPrincipal userPrincipal = new UserPrincipal(
-            1L, // Default ID for WebSocket
-            username,
-            username + "@websocket.local", // Default email
-            "", // No password needed for WebSocket
-            authorities,
-            true // Enabled
-        );
-        
-        return new UsernamePasswordAuthenticationToken(userPrincipal, token, authorities);
+        return authorities;
     }
-} 
\ No newline at end of file
+}
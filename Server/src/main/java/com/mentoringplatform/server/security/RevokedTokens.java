@@ -0,0 +1,110 @@
+package com.mentoringplatform.server.security;
+
+import com.mentoringplatform.server.model.RevokedToken;
+import com.mentoringplatform.server.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Ids of revoked, not yet expired tokens. The table is the source of truth; every request is checked
+ * against an in-memory Bloom filter of its access token ids, so the check costs no query. Refresh token ids
+ * stay out of the filter: every refresh revokes one, and only the table is consulted for them. A false positive rejects a valid
+ * access token, and the client recovers through a refresh, which checks the table exactly. Revocations made
+ * on this instance apply at once; those made elsewhere are picked up on the next rebuild, which also drops
+ * ids of tokens that have expired.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private volatile TokenIdBloomFilter filter;
+
+    public RevokedTokens(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+                         @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new TokenIdBloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * False means the token is certainly not revoked; true means it probably is.
+     */
+    public boolean mightBeRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId);
+    }
+
+    /**
+     * Records the revocation of an access token until it expires.
+     */
+    @Transactional
+    public void revokeAccessToken(String tokenId, Long userId, Date expiresAt) {
+        revoke(tokenId, userId, RevokedToken.TokenType.ACCESS, expiresAt);
+    }
+
+    /**
+     * Records the revocation of a refresh token until it expires. Returns false when the id was already
+     * revoked, so a refresh token can be used exactly once even by concurrent requests.
+     */
+    @Transactional
+    public boolean revokeRefreshToken(String tokenId, Long userId, Date expiresAt) {
+        return revoke(tokenId, userId, RevokedToken.TokenType.REFRESH, expiresAt);
+    }
+
+    private boolean revoke(String tokenId, Long userId, RevokedToken.TokenType tokenType, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        boolean revoked = revokedTokenRepository.revoke(tokenId, userId, tokenType.name(), expiry, LocalDateTime.now()) > 0;
+        if (revoked && tokenType == RevokedToken.TokenType.ACCESS) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    added(tokenId);
+                }
+            });
+        }
+        return revoked;
+    }
+
+    // Synchronized with rebuild: an id committed while the table was being read must not be lost in the swap
+    private synchronized void added(String tokenId) {
+        filter.add(tokenId);
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${jwt.revocation.refresh-ms:30000}",
+               fixedDelayString = "${jwt.revocation.refresh-ms:30000}")
+    public synchronized void rebuild() {
+        List<String> tokenIds = revokedTokenRepository.findUnexpiredTokenIds(RevokedToken.TokenType.ACCESS, LocalDateTime.now());
+        // Sized for twice the current load so the false-positive rate holds until the next rebuild
+        TokenIdBloomFilter rebuilt = new TokenIdBloomFilter(Math.max(expectedEntries, tokenIds.size() * 2), falsePositiveRate);
+        tokenIds.forEach(rebuilt::add);
+        filter = rebuilt;
+        log.debug("Rebuilt revoked token filter with {} ids in {} bits", tokenIds.size(), rebuilt.bitCount());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired token revocations", purged);
+        }
+    }
+}
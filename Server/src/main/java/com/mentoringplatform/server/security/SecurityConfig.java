@@ -1,5 +1,7 @@
 package com.mentoringplatform.server.security;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,15 +29,23 @@ public class SecurityConfig {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final String principalSource;
 
-    public SecurityConfig(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtTokenProvider tokenProvider,
+                          UserDetailsService userDetailsService,
+                          AuthenticationCache authenticationCache,
+                          @Value("${jwt.principal-source:claims}") String principalSource) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.principalSource = principalSource;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+        return new JwtAuthenticationFilter(tokenProvider, userDetailsService, authenticationCache,
+                "database".equalsIgnoreCase(principalSource));
     }
 
     @Bean
@@ -67,8 +77,11 @@ public class SecurityConfig {
                 "Accept",
                 "Origin",
                 "X-Requested-With",
+                "Idempotency-Key",
+                "If-None-Match",
                 "Access-Control-Request-Method",
                 "Access-Control-Request-Headers"));
+        configuration.setExposedHeaders(List.of("ETag", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -83,7 +96,10 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses complete on an ASYNC dispatch of a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/monitoringPlatform/auth/**").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/monitoringPlatform/mentor/profile/**").authenticated()
                 .requestMatchers("/monitoringPlatform/mentee/**").authenticated()
                 .requestMatchers("/monitoringPlatform/sessions/**").authenticated()
@@ -0,0 +1,56 @@
+package com.mentoringplatform.server.security;
+
+import com.mentoringplatform.server.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version of every user who ever revoked their tokens, so claims-based authentication
+ * can reject revoked tokens without a query per request. Revocations made on this instance apply
+ * at once; those made elsewhere are picked up on the next refresh.
+ */
+@Component
+public class TokenVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersions.class);
+
+    private final UserRepository userRepository;
+    private volatile Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    public TokenVersions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * A token is revoked when it was issued before the user's current token version.
+     */
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        return tokenVersion < versions.getOrDefault(userId, 0);
+    }
+
+    public synchronized void revokedBelow(Long userId, int tokenVersion) {
+        versions.merge(userId, tokenVersion, Math::max);
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${jwt.token-version-refresh-ms:30000}",
+               fixedDelayString = "${jwt.token-version-refresh-ms:30000}")
+    public synchronized void refresh() {
+        Map<Long, Integer> loaded = new HashMap<>();
+        for (UserRepository.TokenVersionView view : userRepository.findRevokedTokenVersions()) {
+            loaded.put(view.getId(), view.getTokenVersion());
+        }
+        Map<Long, Integer> refreshed = new ConcurrentHashMap<>(loaded);
+        // Never lower a version revoked locally before the database caught up
+        versions.forEach((userId, version) -> refreshed.merge(userId, version, Math::max));
+        versions = refreshed;
+        log.debug("Loaded token versions for {} users", loaded.size());
+    }
+}
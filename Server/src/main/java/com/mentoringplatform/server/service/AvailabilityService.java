@@ -1,281 +1,606 @@
 package com.mentoringplatform.server.service;
 
+import com.mentoringplatform.server.dto.AvailabilityExceptionRequest;
+import com.mentoringplatform.server.dto.AvailabilityExceptionResponse;
 import com.mentoringplatform.server.dto.AvailabilitySlot;
+import com.mentoringplatform.server.dto.CalendarCacheStats;
 import com.mentoringplatform.server.dto.MentorAvailabilityRequest;
+import com.mentoringplatform.server.dto.WeeklyAvailabilityRequest;
 import com.mentoringplatform.server.model.Availability;
+import com.mentoringplatform.server.model.AvailabilityException;
 import com.mentoringplatform.server.model.Session;
 import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.repository.AvailabilityExceptionRepository;
 import com.mentoringplatform.server.repository.AvailabilityRepository;
 import com.mentoringplatform.server.repository.SessionRepository;
 import com.mentoringplatform.server.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class AvailabilityService {
 
+    // Longest bookable session (see SessionBookingRequest); bounds how far back an overlapping session can start
+    public static final int MAX_SESSION_MINUTES = 240;
+
+    private static final DateTimeFormatter SLOT_START_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
+    private static final DateTimeFormatter SLOT_END_FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
+
     private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityExceptionRepository exceptionRepository;
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final MentorCalendarCache calendarCache;
+    private final MentorFreeTimeIndex freeTimeIndex;
+    private final AvailabilitySlotCache slotCache;
+    private final MentorAvailabilityDigest availabilityDigest;
+    private final SlotHoldRegistry slotHolds;
 
-    public AvailabilityService(AvailabilityRepository availabilityRepository, SessionRepository sessionRepository, UserRepository userRepository) {
+    public AvailabilityService(AvailabilityRepository availabilityRepository,
+                               AvailabilityExceptionRepository exceptionRepository,
+                               SessionRepository sessionRepository,
+                               UserRepository userRepository,
+                               MentorCalendarCache calendarCache,
+                               MentorFreeTimeIndex freeTimeIndex,
+                               AvailabilitySlotCache slotCache,
+                               MentorAvailabilityDigest availabilityDigest,
+                               SlotHoldRegistry slotHolds) {
         this.availabilityRepository = availabilityRepository;
+        this.exceptionRepository = exceptionRepository;
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.calendarCache = calendarCache;
+        this.freeTimeIndex = freeTimeIndex;
+        this.slotCache = slotCache;
+        this.availabilityDigest = availabilityDigest;
+        this.slotHolds = slotHolds;
     }
 
-    public List<AvailabilitySlot> getAvailableTimeSlots(MentorAvailabilityRequest request) {
-        List<AvailabilitySlot> availableSlots = new ArrayList<>();
-        
-        // Get mentor's availability patterns
-        List<Availability> mentorAvailabilities = availabilityRepository.findActiveAvailabilitiesByMentorId(request.getMentorId());
-        
-        // If no structured availability exists, try to get from user profile
-        if (mentorAvailabilities.isEmpty()) {
-            User mentor = userRepository.findById(request.getMentorId()).orElse(null);
-            if (mentor != null && mentor.getAvailability() != null && !mentor.getAvailability().trim().isEmpty()) {
-                // Create default availability based on profile availability
-                mentorAvailabilities = createDefaultAvailabilityFromProfile(mentor);
-            } else {
-                // If no profile availability either, create default availability
-                initializeDefaultAvailability(request.getMentorId());
-                mentorAvailabilities = availabilityRepository.findActiveAvailabilitiesByMentorId(request.getMentorId());
-            }
+    public List<AvailabilitySlot> getAvailableTimeSlots(MentorAvailabilityRequest request, Long requesterId) {
+        if (request.isIntersectWithMentee()) {
+            return computeAvailableTimeSlots(request, requesterId);
         }
 
-        LocalDate currentDate = request.getStartDate();
+        // Identical mentor-only queries share one computation and a short-lived result
+        AvailabilitySlotCache.SlotQueryKey key = new AvailabilitySlotCache.SlotQueryKey(
+            request.getMentorId(),
+            request.getStartDate(),
+            request.getEndDate(),
+            request.getDurationMinutes()
+        );
+        return slotCache.get(key, () -> computeAvailableTimeSlots(request, requesterId));
+    }
+
+    private List<AvailabilitySlot> computeAvailableTimeSlots(MentorAvailabilityRequest request, Long requesterId) {
+        List<AvailabilitySlot> availableSlots = new ArrayList<>();
+        forEachAvailableSlot(request, requesterId, (startMinute, durationMinutes) -> {
+            LocalDateTime slotStart = fromEpochMinute(startMinute);
+            availableSlots.add(createSlot(slotStart, slotStart.plusMinutes(durationMinutes)));
+        });
+        return availableSlots;
+    }
+
+    /**
+     * Emits available slots day by day without materializing the full list, so callers can
+     * stream long ranges. Starts are wall-clock epoch minutes (see {@link BusyIntervals}).
+     * With {@code intersectWithMentee} set, the requester's own pending and confirmed sessions are
+     * loaded in one query and removed as well. Slots held by any mentee are always hidden.
+     */
+    public void forEachAvailableSlot(MentorAvailabilityRequest request, Long requesterId, SlotConsumer consumer) {
+        LocalDate startDate = request.getStartDate();
         LocalDate endDate = request.getEndDate();
-        
-        while (!currentDate.isAfter(endDate)) {
-            DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
-            
-            // Find availabilities for this day of week
-            List<Availability> dayAvailabilities = mentorAvailabilities.stream()
-                    .filter(avail -> avail.getDayOfWeek() == dayOfWeek)
-                    .collect(Collectors.toList());
-            
-            for (Availability availability : dayAvailabilities) {
-                List<AvailabilitySlot> daySlots = generateTimeSlotsForAvailability(
-                    currentDate, 
-                    availability, 
-                    request.getDurationMinutes(),
-                    request.getMentorId()
-                );
-                availableSlots.addAll(daySlots);
-            }
-            
-            currentDate = currentDate.plusDays(1);
+
+        // Time outside the mentor's own sessions that still cannot be offered: live holds and, optionally, the mentee's sessions
+        BusyIntervals extraBusy = slotHolds.heldIntervals(request.getMentorId());
+        if (request.isIntersectWithMentee()) {
+            extraBusy = extraBusy.union(
+                loadMenteeBusyIntervals(requesterId, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()));
         }
+
+        // Serve from the mentor's occupancy bitmap when the request fits inside the cached horizon
+        if (emitSlotsFromCalendar(request, extraBusy, consumer)) {
+            return;
+        }
+
+        // Weekly rules and date exceptions merged into one sorted list of open intervals
+        FreeIntervals openIntervals = FreeIntervals.expand(
+            loadSchedule(request.getMentorId()),
+            exceptionRepository.findForMentorInDateRange(request.getMentorId(), startDate, endDate),
+            startDate,
+            endDate
+        );
+
+        // Load every blocking session for the whole range once and remove it in a single merge
+        BusyIntervals busyIntervals = loadBusyIntervals(
+            request.getMentorId(),
+            startDate.atStartOfDay(),
+            endDate.plusDays(1).atStartOfDay()
+        );
         
-        return availableSlots;
+        generateTimeSlots(openIntervals.subtract(busyIntervals.union(extraBusy)), request.getDurationMinutes(), consumer);
     }
 
-    private List<Availability> createDefaultAvailabilityFromProfile(User mentor) {
-        List<Availability> availabilities = new ArrayList<>();
-        
-        // Parse the availability string from profile
-        String availabilityStr = mentor.getAvailability().toLowerCase();
-        
-        // Default times based on common patterns
-        LocalTime weekdayStart = LocalTime.of(9, 0); // 9:00 AM
-        LocalTime weekdayEnd = LocalTime.of(17, 0);  // 5:00 PM
-        LocalTime weekendStart = LocalTime.of(10, 0); // 10:00 AM
-        LocalTime weekendEnd = LocalTime.of(16, 0);   // 4:00 PM
-        
-        // Try to parse specific times from availability string
-        if (availabilityStr.contains("weekday") || availabilityStr.contains("weekdays")) {
-            // Extract time information if available
-            if (availabilityStr.contains("9") || availabilityStr.contains("am")) {
-                weekdayStart = LocalTime.of(9, 0);
-            }
-            if (availabilityStr.contains("5") || availabilityStr.contains("pm")) {
-                weekdayEnd = LocalTime.of(17, 0);
-            }
+    /**
+     * The mentor's weekly schedule, falling back to {@link WeeklySchedule#DEFAULT} when no rows exist.
+     */
+    private WeeklySchedule loadSchedule(Long mentorId) {
+        return WeeklySchedule.fromAvailabilities(availabilityRepository.findByMentorIdOrderByDayOfWeekAscStartTimeAsc(mentorId));
+    }
+
+    private boolean emitSlotsFromCalendar(MentorAvailabilityRequest request, BusyIntervals extraBusy, SlotConsumer consumer) {
+        int durationMinutes = request.getDurationMinutes();
+        if (durationMinutes <= 0 || durationMinutes % MentorCalendarCache.QUANTUM_MINUTES != 0) {
+            return false;
         }
-        
-        if (availabilityStr.contains("weekend") || availabilityStr.contains("weekends")) {
-            // Extract time information if available
-            if (availabilityStr.contains("10") || availabilityStr.contains("am")) {
-                weekendStart = LocalTime.of(10, 0);
-            }
-            if (availabilityStr.contains("4") || availabilityStr.contains("pm")) {
-                weekendEnd = LocalTime.of(16, 0);
+
+        LocalDate today = LocalDate.now();
+        LocalDate lastCachedDate = today.plusDays(calendarCache.getHorizonDays() - 1);
+        if (request.getStartDate().isBefore(today) || request.getEndDate().isAfter(lastCachedDate)) {
+            return false;
+        }
+
+        MentorCalendarCache.MentorCalendar calendar = calendarCache.get(request.getMentorId(), today);
+        if (calendar == null) {
+            calendar = buildCalendar(request.getMentorId(), today);
+        }
+
+        // Windows or sessions that do not start and end on a quantum boundary need the exact interval path
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            if (!calendar.isAligned((int) ChronoUnit.DAYS.between(today, date))) {
+                return false;
             }
         }
-        
-        // Create availability for weekdays
-        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, 
-                                   DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)) {
-            Availability availability = new Availability();
-            availability.setMentor(mentor);
-            availability.setDayOfWeek(day);
-            availability.setStartTime(weekdayStart);
-            availability.setEndTime(weekdayEnd);
-            availability.setAvailable(true);
-            availabilities.add(availability);
+
+        int quanta = durationMinutes / MentorCalendarCache.QUANTUM_MINUTES;
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            long midnightMinute = BusyIntervals.toEpochMinute(date.atStartOfDay());
+            calendar.forEachFreeStart((int) ChronoUnit.DAYS.between(today, date), quanta, quantum -> {
+                long startMinute = midnightMinute + (long) quantum * MentorCalendarCache.QUANTUM_MINUTES;
+                // Holds and mentee sessions are not in the mentor's bitmap; an in-memory binary search filters them
+                if (!extraBusy.overlaps(startMinute, startMinute + durationMinutes)) {
+                    consumer.accept(startMinute, durationMinutes);
+                }
+            });
         }
-        
-        // Create availability for weekends
-        for (DayOfWeek day : List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)) {
-            Availability availability = new Availability();
-            availability.setMentor(mentor);
-            availability.setDayOfWeek(day);
-            availability.setStartTime(weekendStart);
-            availability.setEndTime(weekendEnd);
-            availability.setAvailable(true);
-            availabilities.add(availability);
+        return true;
+    }
+
+    private MentorCalendarCache.MentorCalendar buildCalendar(Long mentorId, LocalDate today) {
+        long builtAtSequence = calendarCache.changeSequence(mentorId);
+        MentorCalendarCache.MentorCalendar calendar = loadCalendar(mentorId, today, calendarCache.getHorizonDays());
+        calendarCache.put(mentorId, calendar, builtAtSequence);
+        return calendar;
+    }
+
+    private MentorCalendarCache.MentorCalendar loadCalendar(Long mentorId, LocalDate baseDate, int days) {
+        MentorCalendarCache.MentorCalendar calendar = new MentorCalendarCache.MentorCalendar(
+            baseDate,
+            days,
+            loadSchedule(mentorId)
+        );
+        calendar.applyExceptions(exceptionRepository.findForMentorInDateRange(mentorId, baseDate, baseDate.plusDays(days - 1)));
+        calendar.markBusy(loadBusyIntervals(
+            mentorId,
+            baseDate.atStartOfDay(),
+            baseDate.plusDays(days).atStartOfDay()
+        ));
+        return calendar;
+    }
+
+    /**
+     * Returns the ids of mentors with a free run of {@code durationMinutes} inside [windowStart, windowEnd),
+     * starting no earlier than now. Reads the index as last built by {@link MentorAvailabilityDigestRefresher}.
+     */
+    public List<Long> findFreeMentorIds(LocalDateTime windowStart, LocalDateTime windowEnd, int durationMinutes) {
+        if (!windowEnd.isAfter(windowStart)) {
+            throw new IllegalArgumentException("Search window end must be after its start");
         }
-        
-        return availabilities;
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        // A slot that has already started can no longer be booked
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime searchStart = windowStart.isBefore(now) ? now : windowStart;
+        if (!windowEnd.isAfter(searchStart)) {
+            return List.of();
+        }
+        return freeTimeIndex.findFreeMentors(searchStart, windowEnd, durationMinutes);
     }
 
-    private List<AvailabilitySlot> generateTimeSlotsForAvailability(
-            LocalDate date, 
-            Availability availability, 
-            Integer durationMinutes,
-            Long mentorId) {
-        
-        List<AvailabilitySlot> slots = new ArrayList<>();
-        
-        LocalTime currentTime = availability.getStartTime();
-        LocalTime endTime = availability.getEndTime();
-        
+    /**
+     * Builds the free-time index for {@code today} if it is missing or was built for an earlier day.
+     * Called from the scheduled refresher only: a full build loads every mentor's data.
+     */
+    public void ensureFreeTimeIndex(LocalDate today) {
+        freeTimeIndex.rebuildIfStale(today, this::loadAllCalendars);
+    }
+
+    // Bulk-loads every mentor's rules, exceptions and blocking sessions in four queries for a full index build
+    private Map<Long, MentorCalendarCache.MentorCalendar> loadAllCalendars(LocalDate baseDate) {
+        int days = freeTimeIndex.getHorizonDays();
+
+        Map<Long, List<Availability>> rowsByMentor = new HashMap<>();
+        for (Availability availability : availabilityRepository.findAll()) {
+            rowsByMentor.computeIfAbsent(availability.getMentor().getId(), id -> new ArrayList<>()).add(availability);
+        }
+
+        Map<Long, List<AvailabilityException>> exceptionsByMentor = new HashMap<>();
+        for (AvailabilityException exception : exceptionRepository.findInDateRange(baseDate, baseDate.plusDays(days - 1))) {
+            exceptionsByMentor.computeIfAbsent(exception.getMentor().getId(), id -> new ArrayList<>()).add(exception);
+        }
+
+        Map<Long, List<Session>> sessionsByMentor = new HashMap<>();
+        List<Session> sessions = sessionRepository.findBlockingSessionsInTimeRange(
+            baseDate.atStartOfDay().minusMinutes(MAX_SESSION_MINUTES),
+            baseDate.plusDays(days).atStartOfDay()
+        );
+        for (Session session : sessions) {
+            sessionsByMentor.computeIfAbsent(session.getMentor().getId(), id -> new ArrayList<>()).add(session);
+        }
+
+        Map<Long, MentorCalendarCache.MentorCalendar> calendars = new HashMap<>();
+        for (Long mentorId : userRepository.findAllMentorIds()) {
+            MentorCalendarCache.MentorCalendar calendar = new MentorCalendarCache.MentorCalendar(
+                baseDate,
+                days,
+                WeeklySchedule.fromAvailabilities(rowsByMentor.getOrDefault(mentorId, List.of()))
+            );
+            calendar.applyExceptions(exceptionsByMentor.getOrDefault(mentorId, List.of()));
+            calendar.markBusy(BusyIntervals.fromSessions(sessionsByMentor.getOrDefault(mentorId, List.of())));
+            calendars.put(mentorId, calendar);
+        }
+        return calendars;
+    }
+
+    private void generateTimeSlots(FreeIntervals freeIntervals, int durationMinutes, SlotConsumer consumer) {
         // Use 15-minute intervals for more granular slot generation
-        // This allows for any duration to fit within the availability window
+        // This allows for any duration to fit within the free interval
         int intervalMinutes = 15;
         
-        while (currentTime.plusMinutes(durationMinutes).isBefore(endTime) || 
-               currentTime.plusMinutes(durationMinutes).equals(endTime)) {
-            
-            LocalDateTime slotStart = LocalDateTime.of(date, currentTime);
-            LocalDateTime slotEnd = slotStart.plusMinutes(durationMinutes);
-            
-            // Check if this slot conflicts with existing sessions
-            boolean isAvailable = !hasSessionConflict(mentorId, slotStart, slotEnd);
-            
-            if (isAvailable) {
-                AvailabilitySlot slot = new AvailabilitySlot();
-                slot.setStartTime(slotStart);
-                slot.setEndTime(slotEnd);
-                slot.setAvailable(true);
-                slot.setFormattedTime(formatTimeSlot(slotStart, slotEnd));
-                slots.add(slot);
+        freeIntervals.forEach((freeStart, freeEnd) -> {
+            for (long slotStart = freeStart; slotStart + durationMinutes <= freeEnd; slotStart += intervalMinutes) {
+                consumer.accept(slotStart, durationMinutes);
             }
-            
-            // Move to next slot (15-minute intervals for more flexibility)
-            currentTime = currentTime.plusMinutes(intervalMinutes);
-        }
-        
-        return slots;
+        });
     }
 
-    private boolean hasSessionConflict(Long mentorId, LocalDateTime startTime, LocalDateTime endTime) {
-        // Check for any sessions that overlap with the requested time slot
-        // Include PENDING, CONFIRMED, and any other active sessions
-        List<Session> conflictingSessions = sessionRepository.findSessionsForMentorInTimeRange(
-            mentorId, 
-            startTime.minusMinutes(30), 
-            endTime.plusMinutes(30)
+    /**
+     * Loads the mentor's non-cancelled, non-rejected sessions that can overlap [from, to) in a single query.
+     */
+    public BusyIntervals loadBusyIntervals(Long mentorId, LocalDateTime from, LocalDateTime to) {
+        List<Session> sessions = sessionRepository.findBlockingSessionsForMentorInTimeRange(
+            mentorId,
+            from.minusMinutes(MAX_SESSION_MINUTES),
+            to
         );
-        
-        return conflictingSessions.stream().anyMatch(session -> {
-            // Only consider sessions that are not cancelled or rejected
-            if (session.getStatus().equals("CANCELLED") || session.getStatus().equals("REJECTED")) {
-                return false;
+        return BusyIntervals.fromSessions(sessions);
+    }
+
+    /**
+     * Loads the mentee's own pending and confirmed sessions that can overlap [from, to) in a single query.
+     */
+    public BusyIntervals loadMenteeBusyIntervals(Long menteeId, LocalDateTime from, LocalDateTime to) {
+        List<Session> sessions = sessionRepository.findCommittedSessionsForMenteeInTimeRange(
+            menteeId,
+            from.minusMinutes(MAX_SESSION_MINUTES),
+            to
+        );
+        return BusyIntervals.fromSessions(sessions);
+    }
+
+    /**
+     * Records a newly blocking session in the mentor's cached calendar once the transaction commits.
+     */
+    public void onSessionBooked(Session session) {
+        Long mentorId = session.getMentor().getId();
+        long startMinute = BusyIntervals.toEpochMinute(session.getScheduledDateTime());
+        long endMinute = startMinute + session.getDurationMinutes();
+        afterCommit(() -> {
+            calendarCache.markBusy(mentorId, startMinute, endMinute);
+            freeTimeIndex.markBusy(mentorId, startMinute, endMinute);
+            onMentorChanged(mentorId);
+        });
+    }
+
+    /**
+     * Frees a session's interval in the mentor's cached calendar once the transaction commits.
+     * Must be called after the session's new status is saved so it no longer counts as blocking.
+     */
+    public void onSessionReleased(Session session) {
+        Long mentorId = session.getMentor().getId();
+        if (!calendarCache.contains(mentorId) && !freeTimeIndex.contains(mentorId)) {
+            // Nothing to patch; still bump the sequence so an in-flight build is not cached stale
+            afterCommit(() -> {
+                calendarCache.invalidate(mentorId);
+                onMentorChanged(mentorId);
+            });
+            return;
+        }
+
+        LocalDateTime start = session.getScheduledDateTime();
+        LocalDateTime end = start.plusMinutes(session.getDurationMinutes());
+        BusyIntervals stillBusy = loadBusyIntervals(mentorId, start, end);
+        long startMinute = BusyIntervals.toEpochMinute(start);
+        long endMinute = BusyIntervals.toEpochMinute(end);
+        afterCommit(() -> {
+            calendarCache.releaseBusy(mentorId, startMinute, endMinute, stillBusy);
+            freeTimeIndex.releaseBusy(mentorId, startMinute, endMinute, stillBusy);
+            onMentorChanged(mentorId);
+        });
+    }
+
+    /**
+     * Adds a newly registered mentor to the free-time index once the transaction commits.
+     */
+    public void onMentorRegistered(Long mentorId) {
+        afterCommit(() -> {
+            LocalDate baseDate = freeTimeIndex.getBaseDate();
+            if (baseDate != null) {
+                // A new mentor has no rows or sessions yet, so the default template is the whole calendar
+                freeTimeIndex.replaceMentor(mentorId, new MentorCalendarCache.MentorCalendar(
+                    baseDate, freeTimeIndex.getHorizonDays(), WeeklySchedule.DEFAULT));
             }
-            
-            LocalDateTime sessionEnd = session.getScheduledDateTime().plusMinutes(session.getDurationMinutes());
-            
-            // Check for overlap: new session starts before existing session ends AND new session ends after existing session starts
-            return (startTime.isBefore(sessionEnd) && endTime.isAfter(session.getScheduledDateTime()));
+            availabilityDigest.markDirty(mentorId);
         });
     }
 
-    private String formatTimeSlot(LocalDateTime start, LocalDateTime end) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
-        return start.format(formatter) + " - " + end.format(DateTimeFormatter.ofPattern("h:mm a"));
+    // Drops cached slot lists and queues the mentor's listing digest; runs after the calendars are patched
+    private void onMentorChanged(Long mentorId) {
+        slotCache.invalidateMentor(mentorId);
+        availabilityDigest.markDirty(mentorId);
     }
 
-    // Method to initialize default availability for a mentor (if needed)
-    public void initializeDefaultAvailability(Long mentorId) {
-        // Check if mentor already has availability set
-        List<Availability> existingAvailabilities = availabilityRepository.findByMentorIdOrderByDayOfWeekAscStartTimeAsc(mentorId);
-        if (!existingAvailabilities.isEmpty()) {
-            return; // Mentor already has availability set
+    private void refreshIndexedMentor(Long mentorId) {
+        LocalDate baseDate = freeTimeIndex.getBaseDate();
+        if (baseDate == null) {
+            return;
         }
-        
-        // Create default availability for weekdays 9 AM - 5 PM
-        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, 
-                                   DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)) {
-            Availability availability = new Availability();
-            availability.setMentor(new com.mentoringplatform.server.model.User() {{ setId(mentorId); }});
-            availability.setDayOfWeek(day);
-            availability.setStartTime(LocalTime.of(9, 0)); // 9:00 AM
-            availability.setEndTime(LocalTime.of(17, 0));  // 5:00 PM
-            availability.setAvailable(true);
-            availabilityRepository.save(availability);
-        }
-        
-        // Create default availability for weekends 10 AM - 4 PM (shorter hours)
-        for (DayOfWeek day : List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)) {
-            Availability availability = new Availability();
-            availability.setMentor(new com.mentoringplatform.server.model.User() {{ setId(mentorId); }});
-            availability.setDayOfWeek(day);
-            availability.setStartTime(LocalTime.of(10, 0)); // 10:00 AM
-            availability.setEndTime(LocalTime.of(16, 0));   // 4:00 PM
-            availability.setAvailable(true);
-            availabilityRepository.save(availability);
+        freeTimeIndex.replaceMentor(mentorId, loadCalendar(mentorId, baseDate, freeTimeIndex.getHorizonDays()));
+    }
+
+    public CalendarCacheStats getCalendarCacheStats() {
+        return calendarCache.stats();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
-    
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Receives one available slot as a wall-clock epoch-minute start plus its duration.
+     */
+    @FunctionalInterface
+    public interface SlotConsumer {
+        void accept(long startMinute, int durationMinutes);
+    }
+
+    private AvailabilitySlot createSlot(LocalDateTime slotStart, LocalDateTime slotEnd) {
+        AvailabilitySlot slot = new AvailabilitySlot();
+        slot.setStartTime(slotStart);
+        slot.setEndTime(slotEnd);
+        slot.setAvailable(true);
+        slot.setFormattedTime(formatTimeSlot(slotStart, slotEnd));
+        return slot;
+    }
+
+    private String formatTimeSlot(LocalDateTime start, LocalDateTime end) {
+        return start.format(SLOT_START_FORMATTER) + " - " + end.format(SLOT_END_FORMATTER);
+    }
+
     // Method to set custom availability for a mentor
+    @Transactional
     public void setMentorAvailability(Long mentorId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime, boolean isAvailable) {
+        User mentor = userRepository.getReferenceById(mentorId);
+
+        // First edit of a templated schedule: persist the default for the other days so they stay open
+        if (availabilityRepository.findByMentorIdOrderByDayOfWeekAscStartTimeAsc(mentorId).isEmpty()) {
+            List<DayOfWeek> otherDays = Arrays.stream(DayOfWeek.values())
+                .filter(day -> day != dayOfWeek)
+                .collect(Collectors.toList());
+            availabilityRepository.saveAll(WeeklySchedule.DEFAULT.toAvailabilities(mentor, otherDays));
+        }
+
         // Remove existing availability for this day
         List<Availability> existingAvailabilities = availabilityRepository.findByMentorIdAndDayOfWeekOrderByStartTimeAsc(mentorId, dayOfWeek);
         availabilityRepository.deleteAll(existingAvailabilities);
         
-        if (isAvailable) {
-            Availability availability = new Availability();
-            availability.setMentor(new com.mentoringplatform.server.model.User() {{ setId(mentorId); }});
-            availability.setDayOfWeek(dayOfWeek);
-            availability.setStartTime(startTime);
-            availability.setEndTime(endTime);
-            availability.setAvailable(true);
-            availabilityRepository.save(availability);
+        // A closed day keeps an unavailable row so the mentor never falls back to the default template
+        Availability availability = new Availability();
+        availability.setMentor(mentor);
+        availability.setDayOfWeek(dayOfWeek);
+        availability.setStartTime(startTime != null ? startTime : LocalTime.MIDNIGHT);
+        availability.setEndTime(endTime != null ? endTime : LocalTime.MIDNIGHT);
+        availability.setAvailable(isAvailable);
+        availabilityRepository.save(availability);
+
+        List<WeeklySchedule.Window> windows = isAvailable
+            ? List.of(new WeeklySchedule.Window(startTime, endTime))
+            : List.of();
+        afterCommit(() -> {
+            calendarCache.replaceOpenWindows(mentorId, dayOfWeek, windows);
+            refreshIndexedMentor(mentorId);
+            onMentorChanged(mentorId);
+        });
+    }
+    
+    /**
+     * Replaces a mentor's whole weekly template in one transaction: one bulk delete, batched inserts
+     * and a single calendar update for the mentor. Days without windows are stored as closed.
+     */
+    @Transactional
+    public void replaceWeeklySchedule(Long mentorId, WeeklyAvailabilityRequest request) {
+        User mentor = userRepository.getReferenceById(mentorId);
+
+        Map<DayOfWeek, List<WeeklyAvailabilityRequest.Window>> windowsByDay = new EnumMap<>(DayOfWeek.class);
+        for (WeeklyAvailabilityRequest.Window window : request.getWindows()) {
+            if (!window.getStartTime().isBefore(window.getEndTime())) {
+                throw new IllegalArgumentException("Availability window on " + window.getDayOfWeek() + " must end after it starts");
+            }
+            windowsByDay.computeIfAbsent(window.getDayOfWeek(), day -> new ArrayList<>()).add(window);
+        }
+
+        List<Availability> rows = new ArrayList<>();
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            List<WeeklyAvailabilityRequest.Window> dayWindows = windowsByDay.getOrDefault(dayOfWeek, new ArrayList<>());
+            dayWindows.sort(Comparator.comparing(WeeklyAvailabilityRequest.Window::getStartTime));
+            for (int i = 1; i < dayWindows.size(); i++) {
+                if (dayWindows.get(i).getStartTime().isBefore(dayWindows.get(i - 1).getEndTime())) {
+                    throw new IllegalArgumentException("Availability windows overlap on " + dayOfWeek);
+                }
+            }
+
+            if (dayWindows.isEmpty()) {
+                // Closed day marker so the mentor never falls back to the default template
+                Availability closed = new Availability();
+                closed.setMentor(mentor);
+                closed.setDayOfWeek(dayOfWeek);
+                closed.setStartTime(LocalTime.MIDNIGHT);
+                closed.setEndTime(LocalTime.MIDNIGHT);
+                closed.setAvailable(false);
+                rows.add(closed);
+            }
+            for (WeeklyAvailabilityRequest.Window window : dayWindows) {
+                Availability availability = new Availability();
+                availability.setMentor(mentor);
+                availability.setDayOfWeek(dayOfWeek);
+                availability.setStartTime(window.getStartTime());
+                availability.setEndTime(window.getEndTime());
+                availability.setAvailable(true);
+                rows.add(availability);
+            }
+        }
+
+        availabilityRepository.deleteAllByMentorId(mentorId);
+        availabilityRepository.saveAll(rows);
+
+        WeeklySchedule schedule = WeeklySchedule.fromAvailabilities(rows);
+        afterCommit(() -> {
+            calendarCache.replaceSchedule(mentorId, schedule);
+            refreshIndexedMentor(mentorId);
+            onMentorChanged(mentorId);
+        });
+    }
+    
+    @Transactional
+    public AvailabilityExceptionResponse addException(Long mentorId, AvailabilityExceptionRequest request) {
+        User mentor = userRepository.getReferenceById(mentorId);
+
+        boolean hasStart = request.getStartTime() != null;
+        boolean hasEnd = request.getEndTime() != null;
+        if (hasStart != hasEnd) {
+            throw new IllegalArgumentException("Start and end time must be given together");
+        }
+        if (!hasStart && request.getType() == AvailabilityException.ExceptionType.EXTRA) {
+            throw new IllegalArgumentException("Extra availability needs a start and end time");
         }
+        if (hasStart && !request.getStartTime().isBefore(request.getEndTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+
+        AvailabilityException exception = new AvailabilityException();
+        exception.setMentor(mentor);
+        exception.setExceptionDate(request.getDate());
+        exception.setExceptionType(request.getType());
+        exception.setStartTime(request.getStartTime());
+        exception.setEndTime(request.getEndTime());
+        exception.setReason(request.getReason());
+        AvailabilityException saved = exceptionRepository.save(exception);
+
+        onExceptionsChanged(mentorId, saved.getExceptionDate());
+        return convertToExceptionResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvailabilityExceptionResponse> getExceptions(Long mentorId, LocalDate fromDate, LocalDate toDate) {
+        return exceptionRepository.findForMentorInDateRange(mentorId, fromDate, toDate).stream()
+                .map(this::convertToExceptionResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deleteException(Long mentorId, Long exceptionId) {
+        AvailabilityException exception = exceptionRepository.findByIdAndMentorId(exceptionId, mentorId)
+                .orElseThrow(() -> new RuntimeException("Availability exception not found"));
+        exceptionRepository.delete(exception);
+
+        onExceptionsChanged(mentorId, exception.getExceptionDate());
+    }
+
+    // Recomputes the affected date in the cached calendar and the free-time index once the change commits
+    private void onExceptionsChanged(Long mentorId, LocalDate date) {
+        afterCommit(() -> {
+            calendarCache.replaceExceptions(mentorId, date, exceptionRepository.findForMentorInDateRange(mentorId, date, date));
+            refreshIndexedMentor(mentorId);
+            onMentorChanged(mentorId);
+        });
+    }
+
+    private AvailabilityExceptionResponse convertToExceptionResponse(AvailabilityException exception) {
+        AvailabilityExceptionResponse response = new AvailabilityExceptionResponse();
+        response.setId(exception.getId());
+        response.setDate(exception.getExceptionDate());
+        response.setType(exception.getExceptionType());
+        response.setStartTime(exception.getStartTime());
+        response.setEndTime(exception.getEndTime());
+        response.setReason(exception.getReason());
+        return response;
     }
     
     // Method to get mentor's availability summary
     public String getMentorAvailabilitySummary(Long mentorId) {
-        List<Availability> availabilities = availabilityRepository.findActiveAvailabilitiesByMentorId(mentorId);
+        WeeklySchedule schedule = loadSchedule(mentorId);
         
-        if (availabilities.isEmpty()) {
+        if (schedule.isTemplate()) {
             // Try to get availability from user profile
             User mentor = userRepository.findById(mentorId).orElse(null);
             if (mentor != null && mentor.getAvailability() != null && !mentor.getAvailability().trim().isEmpty()) {
                 return mentor.getAvailability();
             }
-            return "No availability set";
         }
         
         StringBuilder summary = new StringBuilder();
         
         // Group by day type (weekdays vs weekends)
-        List<Availability> weekdays = availabilities.stream()
-            .filter(a -> a.getDayOfWeek().getValue() >= 1 && a.getDayOfWeek().getValue() <= 5)
-            .collect(Collectors.toList());
-            
-        List<Availability> weekends = availabilities.stream()
-            .filter(a -> a.getDayOfWeek().getValue() >= 6)
-            .collect(Collectors.toList());
+        List<WeeklySchedule.Window> weekdays = new ArrayList<>();
+        List<WeeklySchedule.Window> weekends = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            (day.getValue() <= 5 ? weekdays : weekends).addAll(schedule.windowsFor(day));
+        }
+        
+        if (weekdays.isEmpty() && weekends.isEmpty()) {
+            return "No availability set";
+        }
         
         if (!weekdays.isEmpty()) {
             summary.append("Weekdays: ");
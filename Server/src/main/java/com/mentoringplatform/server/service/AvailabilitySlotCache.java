@@ -0,0 +1,141 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.AvailabilitySlot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight, short-TTL cache for mentor slot lists. Concurrent identical queries share one
+ * in-flight computation; finished results are kept for a few seconds. Each mentor has a generation
+ * counter bumped by session and availability changes; stored entries and in-flight computations both
+ * carry the generation they started under, so a query never receives a list computed before a change
+ * it arrived after.
+ */
+@Component
+public class AvailabilitySlotCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<SlotQueryKey, CachedSlots> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SlotQueryKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public AvailabilitySlotCache(@Value("${availability.slots.cache-ttl-ms:5000}") long ttlMillis,
+                                 @Value("${availability.slots.cache-max-entries:10000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached slots for the key, joins an identical in-flight computation, or runs the loader.
+     */
+    public List<AvailabilitySlot> get(SlotQueryKey key, Supplier<List<AvailabilitySlot>> loader) {
+        long generation = generation(key.getMentorId()).get();
+        CachedSlots cached = entries.get(key);
+        if (cached != null && cached.generation == generation && System.nanoTime() < cached.expiresAt) {
+            return cached.slots;
+        }
+
+        Flight flight = new Flight(generation);
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                break;
+            }
+            if (existing.generation >= generation) {
+                return join(existing.slots);
+            }
+            // Started before a change for the mentor: take the key over with a fresh computation
+            if (inFlight.replace(key, existing, flight)) {
+                break;
+            }
+        }
+
+        try {
+            List<AvailabilitySlot> slots = List.copyOf(loader.get());
+            // Only keep the result if no change for the mentor landed while it was computed
+            if (generation(key.getMentorId()).get() == generation) {
+                if (entries.size() >= maxEntries) {
+                    evictExpired();
+                }
+                if (entries.size() < maxEntries) {
+                    entries.put(key, new CachedSlots(slots, generation, System.nanoTime() + ttlNanos));
+                }
+            }
+            flight.slots.complete(slots);
+            return slots;
+        } catch (RuntimeException e) {
+            flight.slots.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public void invalidateMentor(Long mentorId) {
+        generation(mentorId).incrementAndGet();
+    }
+
+    private AtomicLong generation(Long mentorId) {
+        return generations.computeIfAbsent(mentorId, id -> new AtomicLong());
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(entry -> now >= entry.getValue().expiresAt
+                || entry.getValue().generation != generation(entry.getKey().getMentorId()).get());
+    }
+
+    private static List<AvailabilitySlot> join(CompletableFuture<List<AvailabilitySlot>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Identity of a mentor-only slot query; mentee-specific queries are not cached.
+     */
+    // Fully qualified: Spring's @Value is imported for the constructor
+    @lombok.Value
+    public static class SlotQueryKey {
+        Long mentorId;
+        LocalDate startDate;
+        LocalDate endDate;
+        int durationMinutes;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<List<AvailabilitySlot>> slots = new CompletableFuture<>();
+        private final long generation;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    private static final class CachedSlots {
+        private final List<AvailabilitySlot> slots;
+        private final long generation;
+        private final long expiresAt;
+
+        private CachedSlots(List<AvailabilitySlot> slots, long generation, long expiresAt) {
+            this.slots = slots;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
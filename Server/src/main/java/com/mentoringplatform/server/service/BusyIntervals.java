@@ -0,0 +1,161 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.model.Session;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, merged set of busy intervals used to test candidate slots in memory.
+ * Times are stored as epoch minutes so lookups are a binary search over primitive arrays.
+ */
+public final class BusyIntervals {
+
+    private static final BusyIntervals EMPTY = new BusyIntervals(new long[0], new long[0], 0);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int size;
+
+    private BusyIntervals(long[] starts, long[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    public static BusyIntervals empty() {
+        return EMPTY;
+    }
+
+    public static BusyIntervals fromSessions(List<Session> sessions) {
+        long[][] raw = new long[sessions.size()][];
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = sessions.get(i);
+            long start = toEpochMinute(session.getScheduledDateTime());
+            raw[i] = new long[] { start, start + session.getDurationMinutes() };
+        }
+        return fromRaw(raw);
+    }
+
+    /**
+     * Builds from unsorted {start, end} epoch-minute pairs.
+     */
+    public static BusyIntervals fromIntervals(List<long[]> intervals) {
+        return fromRaw(intervals.toArray(new long[0][]));
+    }
+
+    private static BusyIntervals fromRaw(long[][] raw) {
+        if (raw.length == 0) {
+            return EMPTY;
+        }
+
+        Arrays.sort(raw, (a, b) -> Long.compare(a[0], b[0]));
+
+        // Merge overlapping or touching intervals so each lookup needs a single comparison
+        long[] starts = new long[raw.length];
+        long[] ends = new long[raw.length];
+        int size = 0;
+        for (long[] interval : raw) {
+            if (size > 0 && interval[0] <= ends[size - 1]) {
+                ends[size - 1] = Math.max(ends[size - 1], interval[1]);
+            } else {
+                starts[size] = interval[0];
+                ends[size] = interval[1];
+                size++;
+            }
+        }
+        return new BusyIntervals(starts, ends, size);
+    }
+
+    /**
+     * Merges two busy sets in one linear pass.
+     */
+    public BusyIntervals union(BusyIntervals other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+
+        long[] mergedStarts = new long[size + other.size];
+        long[] mergedEnds = new long[size + other.size];
+        int merged = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            long start;
+            long end;
+            if (j >= other.size || (i < size && starts[i] <= other.starts[j])) {
+                start = starts[i];
+                end = ends[i++];
+            } else {
+                start = other.starts[j];
+                end = other.ends[j++];
+            }
+            if (merged > 0 && start <= mergedEnds[merged - 1]) {
+                mergedEnds[merged - 1] = Math.max(mergedEnds[merged - 1], end);
+            } else {
+                mergedStarts[merged] = start;
+                mergedEnds[merged] = end;
+                merged++;
+            }
+        }
+        return new BusyIntervals(mergedStarts, mergedEnds, merged);
+    }
+
+    /**
+     * Returns true if [start, end) overlaps any busy interval.
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return overlaps(toEpochMinute(start), toEpochMinute(end));
+    }
+
+    public boolean overlaps(long startMinute, long endMinute) {
+        // First interval whose end is after the candidate start is the only one that can overlap it
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= startMinute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < size && starts[low] < endMinute;
+    }
+
+    public void forEach(IntervalVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(starts[i], ends[i]);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long startAt(int index) {
+        return starts[index];
+    }
+
+    long endAt(int index) {
+        return ends[index];
+    }
+
+    @FunctionalInterface
+    public interface IntervalVisitor {
+        void visit(long startMinute, long endMinute);
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
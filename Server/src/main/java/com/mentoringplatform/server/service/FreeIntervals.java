@@ -0,0 +1,218 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.model.AvailabilityException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, non-overlapping free intervals produced by expanding a mentor's weekly rules and
+ * date exceptions over a range of days. Times are wall-clock epoch minutes like {@link BusyIntervals},
+ * so busy time can be removed with a single merge instead of a lookup per candidate slot.
+ */
+public final class FreeIntervals {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int size;
+
+    private FreeIntervals(long[] starts, long[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Expands the schedule over [fromDate, toDate]. Exceptions must be sorted by date (as returned by
+     * the repository); days and exceptions are each walked once.
+     */
+    public static FreeIntervals expand(WeeklySchedule schedule, List<AvailabilityException> exceptions,
+                                       LocalDate fromDate, LocalDate toDate) {
+        Builder builder = new Builder();
+        int cursor = 0;
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            while (cursor < exceptions.size() && exceptions.get(cursor).getExceptionDate().isBefore(date)) {
+                cursor++;
+            }
+            int first = cursor;
+            while (cursor < exceptions.size() && exceptions.get(cursor).getExceptionDate().equals(date)) {
+                cursor++;
+            }
+
+            int[] windows = effectiveWindows(schedule.windowsFor(date.getDayOfWeek()), exceptions.subList(first, cursor));
+            long midnightMinute = BusyIntervals.toEpochMinute(date.atStartOfDay());
+            for (int i = 0; i < windows.length; i += 2) {
+                builder.add(midnightMinute + windows[i], midnightMinute + windows[i + 1]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Removes every busy interval from these free intervals in one merge pass.
+     */
+    public FreeIntervals subtract(BusyIntervals busy) {
+        if (busy.isEmpty() || size == 0) {
+            return this;
+        }
+
+        Builder builder = new Builder();
+        int b = 0;
+        for (int i = 0; i < size; i++) {
+            long cursor = starts[i];
+            long end = ends[i];
+            // Busy intervals are sorted, so skip the ones that end before this free interval starts
+            while (b < busy.size() && busy.endAt(b) <= cursor) {
+                b++;
+            }
+            int j = b;
+            while (j < busy.size() && busy.startAt(j) < end) {
+                if (busy.startAt(j) > cursor) {
+                    builder.add(cursor, busy.startAt(j));
+                }
+                cursor = Math.max(cursor, busy.endAt(j));
+                j++;
+            }
+            if (cursor < end) {
+                builder.add(cursor, end);
+            }
+        }
+        return builder.build();
+    }
+
+    public void forEach(BusyIntervals.IntervalVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(starts[i], ends[i]);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Open minutes-of-day for one date as flattened [start, end) pairs: the weekly windows minus
+     * blackouts, plus extra windows. Extras win over blackouts so a mentor can close a day and
+     * reopen a single window on it.
+     */
+    static int[] effectiveWindows(List<WeeklySchedule.Window> ruleWindows, List<AvailabilityException> exceptionsOnDate) {
+        int[] open = new int[ruleWindows.size() * 2];
+        for (int i = 0; i < ruleWindows.size(); i++) {
+            open[2 * i] = minuteOfDay(ruleWindows.get(i).getStartTime(), 0);
+            open[2 * i + 1] = minuteOfDay(ruleWindows.get(i).getEndTime(), 0);
+        }
+        open = union(new int[0], open);
+        if (exceptionsOnDate.isEmpty()) {
+            return open;
+        }
+
+        int[] blackouts = collect(exceptionsOnDate, AvailabilityException.ExceptionType.BLACKOUT);
+        int[] extras = collect(exceptionsOnDate, AvailabilityException.ExceptionType.EXTRA);
+        return union(subtract(open, blackouts), extras);
+    }
+
+    // Sorted, merged [start, end) pairs for the exceptions of one type
+    private static int[] collect(List<AvailabilityException> exceptions, AvailabilityException.ExceptionType type) {
+        int[][] raw = exceptions.stream()
+                .filter(exception -> exception.getExceptionType() == type)
+                .map(exception -> new int[] {
+                    minuteOfDay(exception.getStartTime(), 0),
+                    minuteOfDay(exception.getEndTime(), MINUTES_PER_DAY)
+                })
+                .filter(interval -> interval[0] < interval[1])
+                .sorted((a, c) -> Integer.compare(a[0], c[0]))
+                .toArray(int[][]::new);
+        return union(new int[0], flatten(raw));
+    }
+
+    private static int[] subtract(int[] open, int[] removed) {
+        int[] result = new int[open.length + removed.length];
+        int size = 0;
+        int r = 0;
+        for (int i = 0; i < open.length; i += 2) {
+            int cursor = open[i];
+            int end = open[i + 1];
+            while (r < removed.length && removed[r + 1] <= cursor) {
+                r += 2;
+            }
+            for (int j = r; j < removed.length && removed[j] < end; j += 2) {
+                if (removed[j] > cursor) {
+                    result[size++] = cursor;
+                    result[size++] = removed[j];
+                }
+                cursor = Math.max(cursor, removed[j + 1]);
+            }
+            if (cursor < end) {
+                result[size++] = cursor;
+                result[size++] = end;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Merges two sorted pair arrays, coalescing overlapping or touching pairs
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int[] source;
+            int index;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                source = a;
+                index = i;
+                i += 2;
+            } else {
+                source = b;
+                index = j;
+                j += 2;
+            }
+            if (size > 0 && source[index] <= result[size - 1]) {
+                result[size - 1] = Math.max(result[size - 1], source[index + 1]);
+            } else {
+                result[size++] = source[index];
+                result[size++] = source[index + 1];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] flatten(int[][] pairs) {
+        int[] flat = new int[pairs.length * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            flat[2 * i] = pairs[i][0];
+            flat[2 * i + 1] = pairs[i][1];
+        }
+        return flat;
+    }
+
+    private static int minuteOfDay(LocalTime time, int fallback) {
+        return time == null ? fallback : time.toSecondOfDay() / 60;
+    }
+
+    private static final class Builder {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int size;
+
+        // Intervals arrive sorted and disjoint; days are never joined so slots stay within one day
+        void add(long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        FreeIntervals build() {
+            return new FreeIntervals(starts, ends, size);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.mentoringplatform.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentoringplatform.server.dto.ApiResponse;
+import com.mentoringplatform.server.model.IdempotencyRecord;
+import com.mentoringplatform.server.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for mutations retried with the same Idempotency-Key. A key is claimed in
+ * {@code idempotency_records} before the mutation runs, so concurrent retries routed to different nodes
+ * execute it once; the outcome is then written to the same row. Recent outcomes also live in a bounded,
+ * TTL-evicting in-memory map.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlMinutes;
+    private final int maxEntries;
+    private final Duration pendingTimeout;
+    private final Map<String, StoredResponse> recent;
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${idempotency.pending-timeout-ms:60000}") long pendingTimeoutMillis) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.ttlMinutes = ttlMinutes;
+        this.maxEntries = maxEntries;
+        this.pendingTimeout = Duration.ofMillis(pendingTimeoutMillis);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > IdempotencyService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} once per (user, key). A retry with the same key and request gets the stored
+     * response; the same key with a different request is rejected. Without a key the action just runs.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String username, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("INVALID_IDEMPOTENCY_KEY", "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+
+        String cacheKey = username + '\n' + idempotencyKey;
+        String fingerprint = fingerprint(operation, request);
+
+        StoredResponse stored = cached(cacheKey);
+        if (stored != null) {
+            return replay(stored, fingerprint);
+        }
+
+        // The key is claimed in the shared table before the action runs, so concurrent retries on any node execute it once
+        IdempotencyRecord claim = claim(username, idempotencyKey, fingerprint);
+        if (claim == null) {
+            return answerFromRecord(cacheKey, username, idempotencyKey, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            release(claim);
+            throw e;
+        }
+        if (isFinal(response)) {
+            complete(claim, cacheKey, response);
+        } else {
+            release(claim);
+        }
+        return response;
+    }
+
+    /**
+     * Only successes and definitive rejections are replayed. Server errors, timeouts, rate limits and anything
+     * sent with Retry-After (lock timeouts, temporary holds, database failures) let the client retry for real.
+     */
+    static boolean isFinal(ResponseEntity<?> response) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status.is2xxSuccessful()) {
+            return true;
+        }
+        return status.is4xxClientError()
+                && status.value() != HttpStatus.REQUEST_TIMEOUT.value()
+                && status.value() != HttpStatus.TOO_MANY_REQUESTS.value()
+                && !response.getHeaders().containsKey(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = recordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    private StoredResponse cached(String cacheKey) {
+        synchronized (recent) {
+            StoredResponse stored = recent.get(cacheKey);
+            if (stored != null) {
+                if (stored.expiresAt.isAfter(LocalDateTime.now())) {
+                    return stored;
+                }
+                recent.remove(cacheKey);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a pending record under the unique (user, key), or returns null when another request holds or
+     * finished the key. Expired records and claims abandoned past the pending timeout are cleared first.
+     */
+    private IdempotencyRecord claim(String username, String idempotencyKey, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = recordRepository.findByUsernameAndIdempotencyKey(username, idempotencyKey);
+        if (existing.isPresent()
+                && recordRepository.deleteIfAbandoned(existing.get().getId(), now, now.minus(pendingTimeout)) == 0) {
+            return null;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUsername(username);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestFingerprint(fingerprint);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plusMinutes(ttlMinutes));
+        try {
+            return recordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // Another request, possibly on another node, claimed the key first
+            return null;
+        }
+    }
+
+    // The key belongs to another request: replay its outcome if it has one, otherwise report it as running
+    private ResponseEntity<?> answerFromRecord(String cacheKey, String username, String idempotencyKey, String fingerprint) {
+        IdempotencyRecord record = recordRepository.findByUsernameAndIdempotencyKey(username, idempotencyKey).orElse(null);
+        if (record != null && record.getStatusCode() != null) {
+            StoredResponse stored = new StoredResponse(record.getRequestFingerprint(), record.getStatusCode(),
+                    record.getResponseBody(), record.getExpiresAt());
+            synchronized (recent) {
+                recent.put(cacheKey, stored);
+            }
+            return replay(stored, fingerprint);
+        }
+        if (record != null && !record.getRequestFingerprint().equals(fingerprint)) {
+            return keyReused();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("IDEMPOTENCY_KEY_IN_PROGRESS", "A request with this Idempotency-Key is still being processed"));
+    }
+
+    /**
+     * Stores a final outcome on the claim. The mutation has already committed, so if the outcome cannot be stored
+     * the claim is kept rather than released: retries get 409 until the pending timeout instead of running it again.
+     */
+    private void complete(IdempotencyRecord claim, String cacheKey, ResponseEntity<?> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize response for idempotency key {}; leaving it claimed", claim.getIdempotencyKey(), e);
+            return;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        claim.setStatusCode(response.getStatusCode().value());
+        claim.setResponseBody(body);
+        claim.setExpiresAt(expiresAt);
+        try {
+            recordRepository.save(claim);
+        } catch (DataAccessException e) {
+            log.warn("Could not store response for idempotency key {}; leaving it claimed", claim.getIdempotencyKey(), e);
+            return;
+        }
+
+        synchronized (recent) {
+            recent.put(cacheKey, new StoredResponse(claim.getRequestFingerprint(), claim.getStatusCode(), body, expiresAt));
+        }
+    }
+
+    // The action threw or its outcome is not worth replaying: free the key so a retry runs the action again
+    private void release(IdempotencyRecord claim) {
+        try {
+            recordRepository.deleteById(claim.getId());
+        } catch (DataAccessException e) {
+            log.warn("Could not release idempotency key {}; it frees up after the pending timeout", claim.getIdempotencyKey(), e);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint.equals(fingerprint)) {
+            return keyReused();
+        }
+        return ResponseEntity.status(stored.statusCode)
+                .header("Idempotent-Replayed", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body);
+    }
+
+    private static ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ApiResponse.error("IDEMPOTENCY_KEY_REUSED", "Idempotency-Key was already used for a different request"));
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final int statusCode;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(String fingerprint, int statusCode, String body, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.statusCode = statusCode;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
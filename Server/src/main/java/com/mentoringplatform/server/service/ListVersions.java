@@ -0,0 +1,127 @@
+package com.mentoringplatform.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters behind the ETags of frequently polled lists, so a conditional GET can be answered
+ * with 304 before any repository or serialization work. Per-user counters are striped by user id:
+ * a collision only costs a needless 200. Writers bump after commit, and handlers read the version
+ * before loading, so an ETag never labels data older than its version.
+ *
+ * <p>Counters live in this instance only. A change made through another instance is picked up once
+ * the validity window rolls over, which bounds how long a stale 304 can be served.
+ */
+@Component
+public class ListVersions {
+
+    // Lets browsers keep the list but revalidate it with If-None-Match on every request
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Distinguishes ETags across restarts, when counters start again from zero
+    private final long bootNonce = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final AtomicLongArray sessionVersions;
+    private final AtomicLongArray notificationVersions;
+    private final AtomicLong profileVersion = new AtomicLong();
+    private final AtomicLong mentorListingVersion = new AtomicLong();
+    private final long validityMillis;
+
+    public ListVersions(@Value("${etag.stripes:4096}") int stripes,
+                        @Value("${etag.validity-ms:60000}") long validityMillis) {
+        this.sessionVersions = new AtomicLongArray(stripes);
+        this.notificationVersions = new AtomicLongArray(stripes);
+        this.validityMillis = validityMillis;
+    }
+
+    /**
+     * Sessions of these users were created or changed; takes effect after the current transaction commits.
+     */
+    public void sessionsChanged(Long... userIds) {
+        afterCommit(() -> {
+            for (Long userId : userIds) {
+                sessionVersions.incrementAndGet(stripe(userId));
+            }
+        });
+    }
+
+    public void notificationsChanged(Long userId) {
+        afterCommit(() -> notificationVersions.incrementAndGet(stripe(userId)));
+    }
+
+    /**
+     * A user's name or profile changed; it shows up in other users' session lists and in the mentor listing.
+     */
+    public void profilesChanged() {
+        afterCommit(profileVersion::incrementAndGet);
+    }
+
+    /**
+     * Mentor cards changed without a profile write (e.g. a refreshed availability digest).
+     */
+    public void mentorListingChanged() {
+        afterCommit(mentorListingVersion::incrementAndGet);
+    }
+
+    /**
+     * ETag for one of a user's session lists; variant holds whatever else selects the response (cursor, limit).
+     */
+    public String sessionsETag(Long userId, Object... variant) {
+        return etag('s', sessionVersions.get(stripe(userId)), profileVersion.get(), Objects.hash(variant));
+    }
+
+    public String notificationsETag(Long userId) {
+        return etag('n', notificationVersions.get(stripe(userId)), 0, 0);
+    }
+
+    public String mentorsETag() {
+        return etag('m', mentorListingVersion.get(), profileVersion.get(), 0);
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the current strong ETag.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(char kind, long version, long sharedVersion, int variant) {
+        // Time-dependent lists (e.g. upcoming sessions) also change as time passes, not only on writes
+        long window = System.currentTimeMillis() / validityMillis;
+        return "\"" + kind + Long.toHexString(bootNonce) + "-" + Long.toHexString(version) + "-"
+                + Long.toHexString(sharedVersion) + "-" + Long.toHexString(window) + "-" + Integer.toHexString(variant) + "\"";
+    }
+
+    private int stripe(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), sessionVersions.length());
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.mentoringplatform.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed availability highlights shown on mentor cards: the next bookable start and the free
+ * hours left this week. Availability and session events only mark a mentor dirty; the
+ * {@link MentorAvailabilityDigestRefresher} recomputes dirty mentors in the background.
+ */
+@Component
+public class MentorAvailabilityDigest {
+
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyMentors = ConcurrentHashMap.newKeySet();
+
+    public Snapshot get(Long mentorId) {
+        return snapshots.get(mentorId);
+    }
+
+    /**
+     * Stores a mentor's snapshot and reports whether it differs from the previous one.
+     */
+    public boolean put(Long mentorId, Snapshot snapshot) {
+        return !snapshot.equals(snapshots.put(mentorId, snapshot));
+    }
+
+    public void markDirty(Long mentorId) {
+        dirtyMentors.add(mentorId);
+    }
+
+    /**
+     * Removes and returns the dirty mentors plus those whose next available start has already passed.
+     */
+    public List<Long> drainStale(LocalDateTime now) {
+        List<Long> stale = new ArrayList<>();
+        for (Long mentorId : dirtyMentors) {
+            if (dirtyMentors.remove(mentorId)) {
+                stale.add(mentorId);
+            }
+        }
+        snapshots.forEach((mentorId, snapshot) -> {
+            if (snapshot.getNextAvailableStart() != null && snapshot.getNextAvailableStart().isBefore(now)
+                    && !stale.contains(mentorId)) {
+                stale.add(mentorId);
+            }
+        });
+        return stale;
+    }
+
+    public void clearDirty() {
+        dirtyMentors.clear();
+    }
+
+    @lombok.Value
+    public static class Snapshot {
+        LocalDateTime nextAvailableStart;
+        double freeHoursThisWeek;
+    }
+}
@@ -0,0 +1,94 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.service.MentorCalendarCache.MentorCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Keeps {@link MentorFreeTimeIndex} and {@link MentorAvailabilityDigest} current. The first run of each day
+ * rebuilds the free-time index for the new day, off the request path, and recomputes every mentor; later
+ * runs only touch mentors whose sessions or availability changed, or whose next available start has passed.
+ */
+@Component
+public class MentorAvailabilityDigestRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(MentorAvailabilityDigestRefresher.class);
+
+    private final AvailabilityService availabilityService;
+    private final MentorFreeTimeIndex freeTimeIndex;
+    private final MentorAvailabilityDigest digest;
+    private final ListVersions listVersions;
+    private final int slotMinutes;
+
+    private LocalDate lastFullRefresh;
+
+    public MentorAvailabilityDigestRefresher(AvailabilityService availabilityService,
+                                             MentorFreeTimeIndex freeTimeIndex,
+                                             MentorAvailabilityDigest digest,
+                                             ListVersions listVersions,
+                                             @Value("${availability.digest.slot-minutes:60}") int slotMinutes) {
+        this.availabilityService = availabilityService;
+        this.freeTimeIndex = freeTimeIndex;
+        this.digest = digest;
+        this.listVersions = listVersions;
+        this.slotMinutes = slotMinutes;
+    }
+
+    @Scheduled(initialDelayString = "${availability.digest.initial-delay-ms:10000}",
+               fixedDelayString = "${availability.digest.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        availabilityService.ensureFreeTimeIndex(today);
+
+        List<Long> mentorIds;
+        if (!today.equals(lastFullRefresh)) {
+            digest.clearDirty();
+            mentorIds = freeTimeIndex.mentorIds();
+            lastFullRefresh = today;
+        } else {
+            mentorIds = digest.drainStale(now);
+        }
+
+        boolean changed = false;
+        for (Long mentorId : mentorIds) {
+            MentorCalendar calendar = freeTimeIndex.calendarFor(mentorId);
+            if (calendar != null && calendar.getBaseDate().equals(today)) {
+                changed |= digest.put(mentorId, summarize(calendar, now));
+            }
+        }
+        if (changed) {
+            // Mentor cards show the digest, so cached mentor listings are now stale
+            listVersions.mentorListingChanged();
+        }
+        if (!mentorIds.isEmpty()) {
+            log.debug("Refreshed availability digest for {} mentors", mentorIds.size());
+        }
+    }
+
+    private MentorAvailabilityDigest.Snapshot summarize(MentorCalendar calendar, LocalDateTime now) {
+        int quantum = MentorCalendarCache.QUANTUM_MINUTES;
+        long midnightMinute = BusyIntervals.toEpochMinute(calendar.getBaseDate().atStartOfDay());
+        // Round up so a quantum that has already started is never offered
+        int fromBit = (int) ((BusyIntervals.toEpochMinute(now) - midnightMinute + quantum - 1) / quantum);
+
+        int daysLeftInWeek = 8 - now.getDayOfWeek().getValue();
+        int weekEndBit = Math.min(calendar.getDays(), daysLeftInWeek) * MentorCalendarCache.QUANTA_PER_DAY;
+
+        int quanta = (slotMinutes + quantum - 1) / quantum;
+        int nextStart = calendar.nextFreeStart(fromBit, quanta);
+        LocalDateTime nextAvailableStart = nextStart < 0
+                ? null
+                : LocalDateTime.ofEpochSecond((midnightMinute + (long) nextStart * quantum) * 60, 0, ZoneOffset.UTC);
+        double freeHours = calendar.countFree(fromBit, weekEndBit) * quantum / 60.0;
+        return new MentorAvailabilityDigest.Snapshot(nextAvailableStart, freeHours);
+    }
+}
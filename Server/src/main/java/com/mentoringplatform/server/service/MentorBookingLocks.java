@@ -0,0 +1,58 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.exception.SlotConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-mentor locks that serialize bookings for one mentor inside this instance without a
+ * global lock. A lock is held until the surrounding transaction completes, so the next booking's
+ * conflict check sees the committed row. The database exclusion constraint on sessions covers
+ * bookings made through other instances.
+ */
+@Component
+public class MentorBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public MentorBookingLocks(@Value("${booking.lock.stripes:256}") int stripeCount,
+                              @Value("${booking.lock.timeout-ms:5000}") long timeoutMillis) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Locks the mentor's stripe and releases it when the current transaction commits or rolls back.
+     */
+    public void lockUntilTransactionEnds(Long mentorId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Mentor booking lock requires an active transaction");
+        }
+
+        ReentrantLock lock = stripes[(int) Math.floorMod(mentorId, (long) stripes.length)];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SlotConflictException("Mentor is handling other bookings, please retry", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotConflictException("Booking was interrupted, please retry", 1, e);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
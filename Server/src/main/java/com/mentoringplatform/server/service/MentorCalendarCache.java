@@ -0,0 +1,398 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.CalendarCacheStats;
+import com.mentoringplatform.server.model.AvailabilityException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Per-mentor occupancy bitmaps: one bit per 15-minute quantum over a rolling horizon starting today.
+ * Each calendar keeps an "open" bitmap (weekly availability) and a "busy" bitmap (blocking sessions),
+ * so slot generation is a scan over {@code open & ~busy} instead of per-slot date arithmetic.
+ * Entries are LRU-bounded and updated in place by session and availability events.
+ */
+@Component
+public class MentorCalendarCache {
+
+    public static final int QUANTUM_MINUTES = 15;
+    public static final int QUANTA_PER_DAY = 24 * 60 / QUANTUM_MINUTES;
+
+    // Build sequence numbers are striped so in-flight builds only race with events for nearby mentor ids
+    private static final int SEQUENCE_STRIPES = 64;
+
+    private final int horizonDays;
+    private final int maxMentors;
+    private final long[] changeSequences = new long[SEQUENCE_STRIPES];
+    private final LinkedHashMap<Long, MentorCalendar> calendars;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long discardedBuilds;
+
+    public MentorCalendarCache(@Value("${availability.calendar.horizon-days:56}") int horizonDays,
+                               @Value("${availability.calendar.max-mentors:20000}") int maxMentors) {
+        this.horizonDays = horizonDays;
+        this.maxMentors = maxMentors;
+        this.calendars = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MentorCalendar> eldest) {
+                if (size() > MentorCalendarCache.this.maxMentors) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Returns the cached calendar if it was built for {@code today}; stale or missing entries count as a miss.
+     */
+    public synchronized MentorCalendar get(Long mentorId, LocalDate today) {
+        MentorCalendar calendar = calendars.get(mentorId);
+        if (calendar == null || !calendar.baseDate.equals(today)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return calendar;
+    }
+
+    /**
+     * Sequence to capture before loading the rows a calendar is built from; pass it back to {@link #put}.
+     */
+    public synchronized long changeSequence(Long mentorId) {
+        return changeSequences[stripe(mentorId)];
+    }
+
+    /**
+     * Caches the calendar unless an event for the mentor arrived while it was being built.
+     */
+    public synchronized void put(Long mentorId, MentorCalendar calendar, long builtAtSequence) {
+        if (changeSequences[stripe(mentorId)] != builtAtSequence) {
+            discardedBuilds++;
+            return;
+        }
+        calendars.put(mentorId, calendar);
+    }
+
+    public synchronized boolean contains(Long mentorId) {
+        return calendars.containsKey(mentorId);
+    }
+
+    public synchronized void markBusy(Long mentorId, long startMinute, long endMinute) {
+        MentorCalendar calendar = touch(mentorId);
+        if (calendar != null) {
+            calendar.setBusy(startMinute, endMinute, true);
+        }
+    }
+
+    /**
+     * Clears the released interval, then re-marks any sessions that still block part of it.
+     */
+    public synchronized void releaseBusy(Long mentorId, long startMinute, long endMinute, BusyIntervals stillBusy) {
+        MentorCalendar calendar = touch(mentorId);
+        if (calendar != null) {
+            calendar.setBusy(startMinute, endMinute, false);
+            stillBusy.forEach((start, end) -> calendar.setBusy(start, end, true));
+        }
+    }
+
+    public synchronized void replaceOpenWindows(Long mentorId, DayOfWeek dayOfWeek, List<WeeklySchedule.Window> windows) {
+        MentorCalendar calendar = touch(mentorId);
+        if (calendar != null) {
+            calendar.replaceOpenWindows(dayOfWeek, windows);
+        }
+    }
+
+    public synchronized void replaceSchedule(Long mentorId, WeeklySchedule schedule) {
+        MentorCalendar calendar = touch(mentorId);
+        if (calendar != null) {
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                calendar.replaceOpenWindows(dayOfWeek, schedule.windowsFor(dayOfWeek));
+            }
+        }
+    }
+
+    /**
+     * Replaces the exceptions recorded for one date and recomputes that day's open quanta.
+     */
+    public synchronized void replaceExceptions(Long mentorId, LocalDate date, List<AvailabilityException> exceptionsOnDate) {
+        MentorCalendar calendar = touch(mentorId);
+        if (calendar != null) {
+            calendar.replaceExceptions(date, exceptionsOnDate);
+        }
+    }
+
+    public synchronized void invalidate(Long mentorId) {
+        changeSequences[stripe(mentorId)]++;
+        calendars.remove(mentorId);
+    }
+
+    public synchronized CalendarCacheStats stats() {
+        int words = wordsFor(horizonDays);
+        // Two long[] bitmaps per mentor plus array headers and the calendar object itself
+        long bytesPerMentor = 2L * (16 + 8L * words) + 48;
+
+        CalendarCacheStats stats = new CalendarCacheStats();
+        stats.setCachedMentors(calendars.size());
+        stats.setMaxMentors(maxMentors);
+        stats.setHorizonDays(horizonDays);
+        stats.setBitsPerMentor(2L * horizonDays * QUANTA_PER_DAY);
+        stats.setEstimatedHeapBytes(bytesPerMentor * calendars.size());
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(evictions);
+        stats.setDiscardedBuilds(discardedBuilds);
+        return stats;
+    }
+
+    private MentorCalendar touch(Long mentorId) {
+        changeSequences[stripe(mentorId)]++;
+        return calendars.get(mentorId);
+    }
+
+    private static int stripe(Long mentorId) {
+        return (int) (mentorId & (SEQUENCE_STRIPES - 1));
+    }
+
+    private static int wordsFor(int days) {
+        return (days * QUANTA_PER_DAY + 63) >>> 6;
+    }
+
+    /**
+     * Occupancy bitmaps for one mentor. Bit {@code day * QUANTA_PER_DAY + quantum} covers the quantum
+     * starting {@code quantum * 15} minutes after midnight of {@code baseDate + day}.
+     */
+    public static final class MentorCalendar {
+
+        private final LocalDate baseDate;
+        private final long baseMinute;
+        private final int days;
+        private final long[] open;
+        private final long[] busy;
+        private final Map<DayOfWeek, List<WeeklySchedule.Window>> ruleWindows = new EnumMap<>(DayOfWeek.class);
+        // Day index to that date's exceptions; those days are filled from the merged windows instead of the rules
+        private final Map<Integer, List<AvailabilityException>> exceptionsByDay = new HashMap<>();
+        // Bit per DayOfWeek set when every window on that day starts and ends on a quantum boundary
+        private int alignedDays;
+        // Exception days whose merged windows do not start and end on a quantum boundary
+        private final BitSet unalignedExceptionDays = new BitSet();
+        // Busy intervals (start to end minute) with an edge off the quantum grid; blocking sessions never overlap
+        private final TreeMap<Long, Long> unalignedBusy = new TreeMap<>();
+
+        public MentorCalendar(LocalDate baseDate, int days, WeeklySchedule schedule) {
+            this.baseDate = baseDate;
+            this.baseMinute = BusyIntervals.toEpochMinute(baseDate.atStartOfDay());
+            this.days = days;
+            this.open = new long[wordsFor(days)];
+            this.busy = new long[wordsFor(days)];
+            this.alignedDays = (1 << 7) - 1;
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                replaceOpenWindows(dayOfWeek, schedule.windowsFor(dayOfWeek));
+            }
+        }
+
+        public LocalDate getBaseDate() {
+            return baseDate;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * Whether the day's open windows and busy intervals all start and end on a quantum boundary, so that its
+         * bits describe it exactly.
+         */
+        public synchronized boolean isAligned(int dayIndex) {
+            long dayStart = baseMinute + (long) dayIndex * QUANTA_PER_DAY * QUANTUM_MINUTES;
+            long dayEnd = dayStart + (long) QUANTA_PER_DAY * QUANTUM_MINUTES;
+            Map.Entry<Long, Long> before = unalignedBusy.lowerEntry(dayStart);
+            if ((before != null && before.getValue() > dayStart) || !unalignedBusy.subMap(dayStart, dayEnd).isEmpty()) {
+                return false;
+            }
+            if (exceptionsByDay.containsKey(dayIndex)) {
+                return !unalignedExceptionDays.get(dayIndex);
+            }
+            DayOfWeek dayOfWeek = baseDate.plusDays(dayIndex).getDayOfWeek();
+            return (alignedDays & (1 << (dayOfWeek.getValue() - 1))) != 0;
+        }
+
+        /**
+         * Applies date exceptions (sorted by date) on top of the weekly rules.
+         */
+        public synchronized void applyExceptions(List<AvailabilityException> exceptions) {
+            Map<LocalDate, List<AvailabilityException>> byDate = new LinkedHashMap<>();
+            for (AvailabilityException exception : exceptions) {
+                byDate.computeIfAbsent(exception.getExceptionDate(), date -> new ArrayList<>()).add(exception);
+            }
+            byDate.forEach(this::replaceExceptions);
+        }
+
+        public synchronized void markBusy(BusyIntervals intervals) {
+            intervals.forEach((start, end) -> setBusy(start, end, true));
+        }
+
+        /**
+         * Emits the start quantum of every run of {@code quanta} free bits on the given day.
+         */
+        public synchronized void forEachFreeStart(int dayIndex, int quanta, IntConsumer startQuantumConsumer) {
+            int dayStart = dayIndex * QUANTA_PER_DAY;
+            int run = 0;
+            for (int quantum = 0; quantum < QUANTA_PER_DAY; quantum++) {
+                int bit = dayStart + quantum;
+                long free = open[bit >>> 6] & ~busy[bit >>> 6];
+                if ((free & (1L << bit)) != 0) {
+                    run++;
+                    if (run >= quanta) {
+                        startQuantumConsumer.accept(quantum - quanta + 1);
+                    }
+                } else {
+                    run = 0;
+                }
+            }
+        }
+
+        /**
+         * First bit at or after {@code fromBit} that starts a run of {@code quanta} free bits within one day, or -1.
+         */
+        public synchronized int nextFreeStart(int fromBit, int quanta) {
+            int run = 0;
+            for (int bit = Math.max(0, fromBit); bit < days * QUANTA_PER_DAY; bit++) {
+                if (bit % QUANTA_PER_DAY == 0) {
+                    run = 0;
+                }
+                if (isFree(bit)) {
+                    run++;
+                    if (run >= quanta) {
+                        return bit - quanta + 1;
+                    }
+                } else {
+                    run = 0;
+                }
+            }
+            return -1;
+        }
+
+        public synchronized int countFree(int fromBit, int toBit) {
+            int count = 0;
+            for (int bit = Math.max(0, fromBit); bit < Math.min(toBit, days * QUANTA_PER_DAY); bit++) {
+                if (isFree(bit)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        synchronized boolean isFree(int bit) {
+            return ((open[bit >>> 6] & ~busy[bit >>> 6]) & (1L << bit)) != 0;
+        }
+
+        synchronized void setBusy(long startMinute, long endMinute, boolean value) {
+            if (!value) {
+                unalignedBusy.subMap(startMinute, endMinute).clear();
+            } else if (Math.floorMod(startMinute, QUANTUM_MINUTES) != 0 || Math.floorMod(endMinute, QUANTUM_MINUTES) != 0) {
+                unalignedBusy.put(startMinute, endMinute);
+            }
+            // Partially covered quanta count as busy so aligned candidates never overlap a session; days with
+            // such a session are served by the interval path (see isAligned)
+            long from = Math.max(0, Math.floorDiv(startMinute - baseMinute, QUANTUM_MINUTES));
+            long to = Math.min((long) days * QUANTA_PER_DAY,
+                    Math.floorDiv(endMinute - baseMinute + QUANTUM_MINUTES - 1, QUANTUM_MINUTES));
+            if (from < to) {
+                setRange(busy, (int) from, (int) to, value);
+            }
+        }
+
+        synchronized void replaceOpenWindows(DayOfWeek dayOfWeek, List<WeeklySchedule.Window> windows) {
+            int dayMask = 1 << (dayOfWeek.getValue() - 1);
+            alignedDays |= dayMask;
+            for (WeeklySchedule.Window window : windows) {
+                if (window.getStartTime().toSecondOfDay() % (QUANTUM_MINUTES * 60) != 0
+                        || window.getEndTime().toSecondOfDay() % (QUANTUM_MINUTES * 60) != 0) {
+                    alignedDays &= ~dayMask;
+                }
+            }
+
+            ruleWindows.put(dayOfWeek, windows);
+            int firstDay = (dayOfWeek.getValue() - baseDate.getDayOfWeek().getValue() + 7) % 7;
+            for (int day = firstDay; day < days; day += 7) {
+                if (!exceptionsByDay.containsKey(day)) {
+                    fillDay(day, FreeIntervals.effectiveWindows(windows, List.of()));
+                }
+            }
+        }
+
+        synchronized void replaceExceptions(LocalDate date, List<AvailabilityException> exceptionsOnDate) {
+            long dayIndex = ChronoUnit.DAYS.between(baseDate, date);
+            if (dayIndex < 0 || dayIndex >= days) {
+                return;
+            }
+            int day = (int) dayIndex;
+            if (exceptionsOnDate.isEmpty()) {
+                exceptionsByDay.remove(day);
+                unalignedExceptionDays.clear(day);
+            } else {
+                exceptionsByDay.put(day, List.copyOf(exceptionsOnDate));
+            }
+
+            List<WeeklySchedule.Window> rules = ruleWindows.getOrDefault(date.getDayOfWeek(), List.of());
+            int[] windows = FreeIntervals.effectiveWindows(rules, exceptionsOnDate);
+            if (!exceptionsOnDate.isEmpty()) {
+                boolean aligned = true;
+                for (int minute : windows) {
+                    aligned &= minute % QUANTUM_MINUTES == 0;
+                }
+                unalignedExceptionDays.set(day, !aligned);
+            }
+            fillDay(day, windows);
+        }
+
+        // Opens only the quanta fully inside each [start, end) minute-of-day pair
+        private void fillDay(int day, int[] windows) {
+            int dayStart = day * QUANTA_PER_DAY;
+            setRange(open, dayStart, dayStart + QUANTA_PER_DAY, false);
+            for (int i = 0; i < windows.length; i += 2) {
+                int from = (windows[i] + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES;
+                int to = windows[i + 1] / QUANTUM_MINUTES;
+                if (from < to) {
+                    setRange(open, dayStart + from, dayStart + to, true);
+                }
+            }
+        }
+
+        private static void setRange(long[] bits, int from, int to, boolean value) {
+            int fromWord = from >>> 6;
+            int toWord = (to - 1) >>> 6;
+            for (int word = fromWord; word <= toWord; word++) {
+                long mask = -1L;
+                if (word == fromWord) {
+                    mask &= -1L << from;
+                }
+                if (word == toWord) {
+                    mask &= -1L >>> (63 - ((to - 1) & 63));
+                }
+                bits[word] = value ? bits[word] | mask : bits[word] & ~mask;
+            }
+        }
+    }
+}
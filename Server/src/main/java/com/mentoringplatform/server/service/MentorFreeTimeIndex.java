@@ -0,0 +1,254 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.service.MentorCalendarCache.MentorCalendar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Inverted index from 15-minute time bucket to the mentors free in it, over the same rolling horizon
+ * as {@link MentorCalendarCache}. Each bucket holds a bitset over dense mentor ordinals, so "who is free
+ * at T" is a handful of word-wide ANDs instead of one slot generation per mentor.
+ * Every indexed mentor's calendar is kept alongside so session events can patch single columns.
+ */
+@Component
+public class MentorFreeTimeIndex {
+
+    private static final int QUANTUM_MINUTES = MentorCalendarCache.QUANTUM_MINUTES;
+    private static final int QUANTA_PER_DAY = MentorCalendarCache.QUANTA_PER_DAY;
+
+    private final int horizonDays;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private LocalDate baseDate;
+    private long baseMinute;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Long> mentorIds = new ArrayList<>();
+    private final List<MentorCalendar> calendars = new ArrayList<>();
+    private long[][] buckets = new long[0][];
+    // Non-null while a rebuild is loading data; events are queued and replayed onto the new index
+    private List<Runnable> pendingEvents;
+
+    public MentorFreeTimeIndex(@Value("${availability.calendar.horizon-days:56}") int horizonDays) {
+        this.horizonDays = horizonDays;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public synchronized LocalDate getBaseDate() {
+        return baseDate;
+    }
+
+    public synchronized boolean contains(Long mentorId) {
+        return ordinals.containsKey(mentorId);
+    }
+
+    public synchronized List<Long> mentorIds() {
+        return new ArrayList<>(mentorIds);
+    }
+
+    public synchronized MentorCalendar calendarFor(Long mentorId) {
+        Integer ordinal = ordinals.get(mentorId);
+        return ordinal == null ? null : calendars.get(ordinal);
+    }
+
+    /**
+     * Rebuilds the whole index when it was never built or was built for an earlier day.
+     * The loader returns one calendar per mentor, all based on the given date.
+     */
+    public void rebuildIfStale(LocalDate today, Function<LocalDate, Map<Long, MentorCalendar>> loader) {
+        if (!isStale(today)) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            if (!isStale(today)) {
+                return;
+            }
+            synchronized (this) {
+                pendingEvents = new ArrayList<>();
+            }
+            Map<Long, MentorCalendar> loaded = loader.apply(today);
+            synchronized (this) {
+                List<Runnable> queued = pendingEvents;
+                pendingEvents = null;
+                install(today, loaded);
+                queued.forEach(Runnable::run);
+            }
+        } finally {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    public synchronized void markBusy(Long mentorId, long startMinute, long endMinute) {
+        if (queue(() -> markBusy(mentorId, startMinute, endMinute))) {
+            return;
+        }
+        Integer ordinal = ordinals.get(mentorId);
+        if (ordinal != null) {
+            calendars.get(ordinal).setBusy(startMinute, endMinute, true);
+            refreshColumn(ordinal, startMinute, endMinute);
+        }
+    }
+
+    public synchronized void releaseBusy(Long mentorId, long startMinute, long endMinute, BusyIntervals stillBusy) {
+        if (queue(() -> releaseBusy(mentorId, startMinute, endMinute, stillBusy))) {
+            return;
+        }
+        Integer ordinal = ordinals.get(mentorId);
+        if (ordinal != null) {
+            MentorCalendar calendar = calendars.get(ordinal);
+            calendar.setBusy(startMinute, endMinute, false);
+            stillBusy.forEach((start, end) -> calendar.setBusy(start, end, true));
+            refreshColumn(ordinal, startMinute, endMinute);
+        }
+    }
+
+    /**
+     * Adds or replaces one mentor's calendar, e.g. after their weekly availability changed.
+     * Calendars built for a different base date are ignored; the next rebuild picks the mentor up.
+     */
+    public synchronized void replaceMentor(Long mentorId, MentorCalendar calendar) {
+        if (queue(() -> replaceMentor(mentorId, calendar))) {
+            return;
+        }
+        if (baseDate == null || !baseDate.equals(calendar.getBaseDate())) {
+            return;
+        }
+        Integer ordinal = ordinals.get(mentorId);
+        if (ordinal == null) {
+            ordinal = addMentor(mentorId, calendar);
+        } else {
+            calendars.set(ordinal, calendar);
+        }
+        refreshColumn(ordinal, baseMinute, baseMinute + (long) horizonDays * QUANTA_PER_DAY * QUANTUM_MINUTES);
+    }
+
+    /**
+     * Returns the ids of mentors with at least one free run of {@code durationMinutes} that starts and ends
+     * inside [windowStart, windowEnd) without crossing midnight. Runs start on quantum boundaries at or after
+     * {@code windowStart}. Throws {@link IllegalStateException} before the first build.
+     */
+    public synchronized List<Long> findFreeMentors(LocalDateTime windowStart, LocalDateTime windowEnd, int durationMinutes) {
+        if (baseDate == null) {
+            throw new IllegalStateException("Free mentor search is not ready yet; try again shortly");
+        }
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        long horizonEnd = baseMinute + (long) horizonDays * QUANTA_PER_DAY * QUANTUM_MINUTES;
+        long startMinute = BusyIntervals.toEpochMinute(windowStart);
+        long endMinute = BusyIntervals.toEpochMinute(windowEnd);
+        if (startMinute < baseMinute || endMinute > horizonEnd) {
+            throw new IllegalArgumentException("Search window must fall within the next " + horizonDays + " days");
+        }
+
+        int quanta = (durationMinutes + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES;
+        int firstStart = (int) Math.floorDiv(startMinute - baseMinute + QUANTUM_MINUTES - 1, QUANTUM_MINUTES);
+        int lastStart = (int) Math.floorDiv(endMinute - baseMinute, QUANTUM_MINUTES) - quanta;
+
+        int words = words();
+        long[] free = new long[words];
+        long[] candidate = new long[words];
+        for (int start = firstStart; start <= lastStart; start++) {
+            if (start / QUANTA_PER_DAY != (start + quanta - 1) / QUANTA_PER_DAY) {
+                continue;
+            }
+            System.arraycopy(buckets[start], 0, candidate, 0, words);
+            for (int bucket = start + 1; bucket < start + quanta; bucket++) {
+                long[] bits = buckets[bucket];
+                for (int word = 0; word < words; word++) {
+                    candidate[word] &= bits[word];
+                }
+            }
+            for (int word = 0; word < words; word++) {
+                free[word] |= candidate[word];
+            }
+        }
+
+        List<Long> result = new ArrayList<>();
+        for (int word = 0; word < words; word++) {
+            long bits = free[word];
+            while (bits != 0) {
+                int ordinal = (word << 6) + Long.numberOfTrailingZeros(bits);
+                result.add(mentorIds.get(ordinal));
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    private synchronized boolean isStale(LocalDate today) {
+        return baseDate == null || !baseDate.equals(today);
+    }
+
+    private boolean queue(Runnable event) {
+        if (pendingEvents == null) {
+            return false;
+        }
+        pendingEvents.add(event);
+        return true;
+    }
+
+    private void install(LocalDate today, Map<Long, MentorCalendar> loaded) {
+        baseDate = today;
+        baseMinute = BusyIntervals.toEpochMinute(today.atStartOfDay());
+        ordinals.clear();
+        mentorIds.clear();
+        calendars.clear();
+        buckets = new long[horizonDays * QUANTA_PER_DAY][(loaded.size() + 63) >>> 6];
+        loaded.forEach(this::addMentor);
+        for (int ordinal = 0; ordinal < calendars.size(); ordinal++) {
+            refreshColumn(ordinal, baseMinute, baseMinute + (long) horizonDays * QUANTA_PER_DAY * QUANTUM_MINUTES);
+        }
+    }
+
+    private int addMentor(Long mentorId, MentorCalendar calendar) {
+        int ordinal = mentorIds.size();
+        ordinals.put(mentorId, ordinal);
+        mentorIds.add(mentorId);
+        calendars.add(calendar);
+        if (ordinal >>> 6 >= words()) {
+            int grown = Math.max(1, words() * 2);
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                buckets[bucket] = Arrays.copyOf(buckets[bucket], grown);
+            }
+        }
+        return ordinal;
+    }
+
+    // Copies the mentor's free bits for the quanta touched by [startMinute, endMinute) into the buckets
+    private void refreshColumn(int ordinal, long startMinute, long endMinute) {
+        int from = (int) Math.max(0, Math.floorDiv(startMinute - baseMinute, QUANTUM_MINUTES));
+        int to = (int) Math.min(buckets.length,
+                Math.floorDiv(endMinute - baseMinute + QUANTUM_MINUTES - 1, QUANTUM_MINUTES));
+        MentorCalendar calendar = calendars.get(ordinal);
+        int word = ordinal >>> 6;
+        long mask = 1L << ordinal;
+        for (int bucket = from; bucket < to; bucket++) {
+            if (calendar.isFree(bucket)) {
+                buckets[bucket][word] |= mask;
+            } else {
+                buckets[bucket][word] &= ~mask;
+            }
+        }
+    }
+
+    private int words() {
+        return buckets.length == 0 ? 0 : buckets[0].length;
+    }
+}
@@ -6,6 +6,7 @@ import com.mentoringplatform.server.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,9 +14,15 @@ import java.util.stream.Collectors;
 public class MentorService {
 
     private final UserRepository userRepository;
+    private final AvailabilityService availabilityService;
+    private final MentorAvailabilityDigest availabilityDigest;
 
-    public MentorService(UserRepository userRepository) {
+    public MentorService(UserRepository userRepository,
+                         AvailabilityService availabilityService,
+                         MentorAvailabilityDigest availabilityDigest) {
         this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.availabilityDigest = availabilityDigest;
     }
 
     @Transactional(readOnly = true)
@@ -36,6 +43,25 @@ public class MentorService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<MentorDetailsResponse> findFreeMentors(LocalDateTime windowStart,
+                                                       LocalDateTime windowEnd,
+                                                       int durationMinutes,
+                                                       String expertise) {
+        List<Long> freeMentorIds = availabilityService.findFreeMentorIds(windowStart, windowEnd, durationMinutes);
+        if (freeMentorIds.isEmpty()) {
+            return List.of();
+        }
+
+        String expertiseFilter = expertise != null && !expertise.isBlank() ? expertise.trim().toLowerCase() : null;
+        return userRepository.findAllById(freeMentorIds).stream()
+                .filter(User::isEnabled)
+                .filter(user -> expertiseFilter == null
+                        || (user.getExpertise() != null && user.getExpertise().toLowerCase().contains(expertiseFilter)))
+                .map(this::convertToMentorDetailsResponse)
+                .collect(Collectors.toList());
+    }
+
     private MentorDetailsResponse convertToMentorDetailsResponse(User user) {
         MentorDetailsResponse response = new MentorDetailsResponse();
         response.setId(user.getId());
@@ -47,6 +73,12 @@ public class MentorService {
         response.setHourlyRate(user.getHourlyRate());
         response.setDescription(user.getDescription());
         response.setEnabled(user.isEnabled());
+
+        MentorAvailabilityDigest.Snapshot snapshot = availabilityDigest.get(user.getId());
+        if (snapshot != null) {
+            response.setNextAvailableStart(snapshot.getNextAvailableStart());
+            response.setFreeHoursThisWeek(snapshot.getFreeHoursThisWeek());
+        }
         return response;
     }
 } 
\ No newline at end of file
@@ -6,31 +6,31 @@ import com.mentoringplatform.server.model.Session;
 import com.mentoringplatform.server.model.User;
 import com.mentoringplatform.server.model.UserNotification;
 import com.mentoringplatform.server.repository.UserNotificationRepository;
-import com.mentoringplatform.server.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+    private static final DateTimeFormatter SESSION_TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
 
     private final UserNotificationRepository notificationRepository;
-    private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final ListVersions listVersions;
 
     public NotificationService(UserNotificationRepository notificationRepository,
-                               UserRepository userRepository,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               ListVersions listVersions) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
         this.objectMapper = objectMapper;
+        this.listVersions = listVersions;
     }
 
     @Transactional
@@ -55,34 +55,50 @@ public class NotificationService {
         } catch (JsonProcessingException ex) {
             log.warn("Failed to serialize notification payload for session {}", session.getId(), ex);
         }
+        listVersions.notificationsChanged(recipient.getId());
+        return notificationRepository.save(notification);
+    }
+
+    /**
+     * Tells the mentee that their request was cancelled because the mentor did not answer before it was due.
+     */
+    @Transactional
+    public UserNotification createRequestExpiredNotification(Session session) {
+        UserNotification notification = new UserNotification();
+        notification.setUser(session.getMentee());
+        notification.setNotificationType(UserNotification.NotificationType.SESSION_UPDATE);
+        notification.setTitle("Session request expired");
+        notification.setBody("Your session request for " + session.getScheduledDateTime().format(SESSION_TIME_FORMATTER)
+                + " was cancelled because the mentor did not respond before it was due to start.");
+        notification.setMeetingId(session.getId());
+        notification.setSessionId(session.getId());
+        notification.setDeepLink("/sessions/" + session.getId());
+        notification.setCreatedAt(LocalDateTime.now());
+        notification.setUpdatedAt(LocalDateTime.now());
+        listVersions.notificationsChanged(session.getMentee().getId());
         return notificationRepository.save(notification);
     }
 
     @Transactional(readOnly = true)
-    public List<UserNotification> getLatestNotifications(String username, int limit) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return notificationRepository.findTop50ByUserIdOrderByCreatedAtDesc(user.getId());
+    public List<UserNotification> getLatestNotifications(Long userId, int limit) {
+        return notificationRepository.findTop50ByUserIdOrderByCreatedAtDesc(userId);
     }
 
     @Transactional
-    public void markAsRead(String username, Long notificationId) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        UserNotification notification = notificationRepository.findByIdAndUserId(notificationId, user.getId())
+    public void markAsRead(Long userId, Long notificationId) {
+        UserNotification notification = notificationRepository.findByIdAndUserId(notificationId, userId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
         notification.markRead();
         notificationRepository.save(notification);
+        listVersions.notificationsChanged(userId);
     }
 
     @Transactional
-    public void markAllAsRead(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        List<UserNotification> notifications = notificationRepository.findTop50ByUserIdOrderByCreatedAtDesc(user.getId());
+    public void markAllAsRead(Long userId) {
+        List<UserNotification> notifications = notificationRepository.findTop50ByUserIdOrderByCreatedAtDesc(userId);
         notifications.forEach(UserNotification::markRead);
         notificationRepository.saveAll(notifications);
+        listVersions.notificationsChanged(userId);
     }
 
     private SessionNotificationPayload buildPayload(Session session, User actor, String actorDisplayName) {
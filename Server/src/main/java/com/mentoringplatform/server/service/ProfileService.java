@@ -4,6 +4,7 @@ import com.mentoringplatform.server.dto.ProfileRequest;
 import com.mentoringplatform.server.dto.ProfileResponse;
 import com.mentoringplatform.server.model.User;
 import com.mentoringplatform.server.repository.UserRepository;
+import com.mentoringplatform.server.security.AuthenticationCache;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,15 +13,21 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProfileService {
 
     private final UserRepository userRepository;
+    private final ListVersions listVersions;
+    private final AuthenticationCache authenticationCache;
 
-    public ProfileService(UserRepository userRepository) {
+    public ProfileService(UserRepository userRepository,
+                          ListVersions listVersions,
+                          AuthenticationCache authenticationCache) {
         this.userRepository = userRepository;
+        this.listVersions = listVersions;
+        this.authenticationCache = authenticationCache;
     }
 
     @Transactional(readOnly = true)
-    public ProfileResponse getProfile(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    public ProfileResponse getProfile(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
 
         ProfileResponse profile = new ProfileResponse();
         profile.setName(user.getName());
@@ -35,9 +42,9 @@ public class ProfileService {
     }
 
     @Transactional
-    public ProfileResponse updateProfile(String username, ProfileRequest profileRequest) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    public ProfileResponse updateProfile(Long userId, ProfileRequest profileRequest) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
 
         // Update profile fields
         user.setName(profileRequest.getName());
@@ -48,6 +55,8 @@ public class ProfileService {
 
         // Save the updated user
         User savedUser = userRepository.save(user);
+        listVersions.profilesChanged();
+        authenticationCache.evictUser(savedUser.getUsername());
 
         // Return the updated profile
         ProfileResponse profile = new ProfileResponse();
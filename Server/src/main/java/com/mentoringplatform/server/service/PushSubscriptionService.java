@@ -5,7 +5,6 @@ import com.mentoringplatform.server.model.PushSubscription;
 import com.mentoringplatform.server.model.User;
 import com.mentoringplatform.server.repository.PushSubscriptionRepository;
 import com.mentoringplatform.server.repository.UserRepository;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,9 +23,9 @@ public class PushSubscriptionService {
     }
 
     @Transactional
-    public void upsertSubscription(String username, PushSubscriptionRequest request) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public void upsertSubscription(Long userId, PushSubscriptionRequest request) {
+        // Only the foreign key is needed, so no user query
+        User user = userRepository.getReferenceById(userId);
 
         PushSubscription subscription = pushSubscriptionRepository.findByEndpoint(request.getEndpoint())
                 .filter(PushSubscription::isActive)
@@ -0,0 +1,44 @@
+package com.mentoringplatform.server.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position (scheduledDateTime, id) of the last session on a page, encoded as an opaque
+ * URL-safe token so clients cannot depend on its shape.
+ */
+public final class SessionCursor {
+
+    private final LocalDateTime scheduledDateTime;
+    private final long id;
+
+    public SessionCursor(LocalDateTime scheduledDateTime, long id) {
+        this.scheduledDateTime = scheduledDateTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getScheduledDateTime() {
+        return scheduledDateTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = scheduledDateTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SessionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SessionCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.SessionSweeperStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves CONFIRMED sessions that have ended to COMPLETED or NO_SHOW, and cancels PENDING sessions
+ * that reached their start unanswered, so they drop out of the PENDING/CONFIRMED predicates. Each chunk is its own transaction over rows locked with
+ * SKIP LOCKED, so several nodes can sweep at once without blocking each other or bookings.
+ */
+@Component
+public class SessionLifecycleSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionLifecycleSweeper.class);
+
+    private final SessionService sessionService;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long graceMinutes;
+
+    private final SessionSweeperStats stats = new SessionSweeperStats();
+
+    public SessionLifecycleSweeper(SessionService sessionService,
+                                   @Value("${sessions.sweeper.chunk-size:500}") int chunkSize,
+                                   @Value("${sessions.sweeper.max-chunks-per-run:20}") int maxChunksPerRun,
+                                   @Value("${sessions.sweeper.grace-minutes:15}") long graceMinutes) {
+        this.sessionService = sessionService;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.graceMinutes = graceMinutes;
+    }
+
+    @Scheduled(initialDelayString = "${sessions.sweeper.initial-delay-ms:30000}",
+               fixedDelayString = "${sessions.sweeper.interval-ms:60000}")
+    public void sweep() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        // Sessions that overrun a little are not closed while still in progress
+        LocalDateTime cutoff = now.minusMinutes(graceMinutes);
+
+        int chunks = 0;
+        int completed = 0;
+        int noShow = 0;
+        int cancelled = 0;
+        try {
+            while (chunks < maxChunksPerRun) {
+                SessionService.ExpiredSweep chunk = sessionService.sweepExpiredSessions(cutoff, chunkSize);
+                chunks++;
+                completed += chunk.getCompleted();
+                noShow += chunk.getNoShow();
+                if (chunk.getLocked() < chunkSize) {
+                    break;
+                }
+            }
+            // A request can no longer be accepted once its start has passed
+            while (chunks < maxChunksPerRun) {
+                int locked = sessionService.sweepUnansweredSessions(now, chunkSize);
+                chunks++;
+                cancelled += locked;
+                if (locked < chunkSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Session sweep failed after {} chunks", chunks, e);
+            synchronized (stats) {
+                stats.setFailedRuns(stats.getFailedRuns() + 1);
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        synchronized (stats) {
+            stats.setRuns(stats.getRuns() + 1);
+            stats.setLastRunAt(LocalDateTime.now());
+            stats.setLastRunDurationMs(durationMs);
+            stats.setLastRunChunks(chunks);
+            stats.setLastRunCompleted(completed);
+            stats.setLastRunNoShow(noShow);
+            stats.setLastRunCancelled(cancelled);
+            stats.setTotalCompleted(stats.getTotalCompleted() + completed);
+            stats.setTotalNoShow(stats.getTotalNoShow() + noShow);
+            stats.setTotalCancelled(stats.getTotalCancelled() + cancelled);
+        }
+        if (completed + noShow + cancelled > 0) {
+            log.info("Session sweep closed {} sessions ({} completed, {} no-show, {} unanswered cancelled) in {} chunks, {} ms",
+                    completed + noShow + cancelled, completed, noShow, cancelled, chunks, durationMs);
+        }
+    }
+
+    public SessionSweeperStats stats() {
+        SessionSweeperStats copy = new SessionSweeperStats();
+        synchronized (stats) {
+            copy.setRuns(stats.getRuns());
+            copy.setLastRunAt(stats.getLastRunAt());
+            copy.setLastRunDurationMs(stats.getLastRunDurationMs());
+            copy.setLastRunChunks(stats.getLastRunChunks());
+            copy.setLastRunCompleted(stats.getLastRunCompleted());
+            copy.setLastRunNoShow(stats.getLastRunNoShow());
+            copy.setLastRunCancelled(stats.getLastRunCancelled());
+            copy.setTotalCompleted(stats.getTotalCompleted());
+            copy.setTotalNoShow(stats.getTotalNoShow());
+            copy.setTotalCancelled(stats.getTotalCancelled());
+            copy.setFailedRuns(stats.getFailedRuns());
+        }
+        return copy;
+    }
+}
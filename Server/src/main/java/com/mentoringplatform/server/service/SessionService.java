@@ -1,7 +1,14 @@
 package com.mentoringplatform.server.service;
 
 import com.mentoringplatform.server.dto.SessionBookingRequest;
+import com.mentoringplatform.server.dto.SessionChanges;
+import com.mentoringplatform.server.dto.SessionPage;
 import com.mentoringplatform.server.dto.SessionResponse;
+import com.mentoringplatform.server.dto.SessionSeriesRequest;
+import com.mentoringplatform.server.dto.SessionSeriesResponse;
+import com.mentoringplatform.server.dto.SlotHoldRequest;
+import com.mentoringplatform.server.dto.SlotHoldResponse;
+import com.mentoringplatform.server.exception.SlotConflictException;
 import com.mentoringplatform.server.model.Session;
 import com.mentoringplatform.server.model.User;
 import com.mentoringplatform.server.model.UserNotification;
@@ -9,42 +16,77 @@ import com.mentoringplatform.server.repository.SessionRepository;
 import com.mentoringplatform.server.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
 
     private static final Logger log = LoggerFactory.getLogger(SessionService.class);
 
+    // Exclusion constraint on sessions (see schema-updates.sql) that rejects overlapping blocking sessions per mentor
+    private static final String MENTOR_OVERLAP_CONSTRAINT = "sessions_mentor_no_overlap";
+
+    // Watermark before any session was written
+    private static final LocalDateTime CHANGES_ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
     private final AvailabilityService availabilityService;
     private final NotificationService notificationService;
     private final PushNotificationDispatcher pushNotificationDispatcher;
+    private final MentorBookingLocks bookingLocks;
+    private final SlotHoldRegistry slotHolds;
+    private final ListVersions listVersions;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxChangesPerPoll;
+    private final long changesSettleMillis;
 
     public SessionService(SessionRepository sessionRepository,
                           UserRepository userRepository,
                           AvailabilityService availabilityService,
                           NotificationService notificationService,
-                          PushNotificationDispatcher pushNotificationDispatcher) {
+                          PushNotificationDispatcher pushNotificationDispatcher,
+                          MentorBookingLocks bookingLocks,
+                          SlotHoldRegistry slotHolds,
+                          ListVersions listVersions,
+                          @Value("${sessions.page.default-size:20}") int defaultPageSize,
+                          @Value("${sessions.page.max-size:100}") int maxPageSize,
+                          @Value("${sessions.changes.max-size:200}") int maxChangesPerPoll,
+                          @Value("${sessions.changes.settle-ms:2000}") long changesSettleMillis) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
         this.availabilityService = availabilityService;
         this.notificationService = notificationService;
         this.pushNotificationDispatcher = pushNotificationDispatcher;
+        this.bookingLocks = bookingLocks;
+        this.slotHolds = slotHolds;
+        this.listVersions = listVersions;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxChangesPerPoll = maxChangesPerPoll;
+        this.changesSettleMillis = changesSettleMillis;
     }
 
     @Transactional
-    public SessionResponse bookSession(String menteeUsername, SessionBookingRequest request) {
-        // Get mentee
-        User mentee = userRepository.findByUsername(menteeUsername)
-                .orElseThrow(() -> new UsernameNotFoundException("Mentee not found"));
+    public SessionResponse bookSession(Long menteeId, SessionBookingRequest request) {
+        // Mentee is the authenticated user; a proxy is enough for the foreign key
+        User mentee = userRepository.getReferenceById(menteeId);
 
         // Get mentor
         User mentor = userRepository.findById(request.getMentorId())
@@ -55,26 +97,47 @@ public class SessionService {
             throw new RuntimeException("Selected user is not a mentor");
         }
 
-        // Initialize default availability if mentor doesn't have any
-        availabilityService.initializeDefaultAvailability(mentor.getId());
+        // Serialize bookings for this mentor until commit so the conflict check below cannot race
+        bookingLocks.lockUntilTransactionEnds(mentor.getId());
 
         // Check for conflicting sessions
         LocalDateTime endTime = request.getScheduledDateTime().plusMinutes(request.getDurationMinutes());
-        List<Session> conflictingSessions = sessionRepository.findSessionsForMentorInTimeRange(
-            mentor.getId(), 
-            request.getScheduledDateTime().minusMinutes(request.getDurationMinutes()), 
-            endTime.plusMinutes(request.getDurationMinutes())
+        long startMinute = BusyIntervals.toEpochMinute(request.getScheduledDateTime());
+        long endMinute = BusyIntervals.toEpochMinute(endTime);
+
+        // A hold taken by this mentee for exactly this slot is converted; anyone else's hold blocks the slot
+        String holdId = null;
+        if (request.getHoldId() != null) {
+            SlotHoldRegistry.SlotHold hold = slotHolds.get(request.getHoldId());
+            if (hold != null) {
+                if (!hold.getMenteeId().equals(mentee.getId()) || !hold.getMentorId().equals(mentor.getId())
+                        || hold.getStartMinute() != startMinute || hold.getEndMinute() != endMinute) {
+                    throw new IllegalArgumentException("Hold does not match this booking");
+                }
+                holdId = hold.getId();
+            }
+        }
+        if (slotHolds.isHeld(mentor.getId(), startMinute, endMinute, holdId)) {
+            throw new SlotConflictException("This slot is temporarily held by another mentee", slotHolds.holdSeconds());
+        }
+        BusyIntervals busyIntervals = availabilityService.loadBusyIntervals(
+            mentor.getId(),
+            request.getScheduledDateTime(),
+            endTime
         );
         
-        // Check if any existing sessions overlap with the new session
-        boolean hasConflict = conflictingSessions.stream().anyMatch(existingSession -> {
-            LocalDateTime existingEnd = existingSession.getScheduledDateTime().plusMinutes(existingSession.getDurationMinutes());
-            return (request.getScheduledDateTime().isBefore(existingEnd) && 
-                    endTime.isAfter(existingSession.getScheduledDateTime()));
-        });
-        
-        if (hasConflict) {
-            throw new RuntimeException("Mentor has a conflicting session at this time");
+        if (busyIntervals.overlaps(request.getScheduledDateTime(), endTime)) {
+            throw new SlotConflictException("Mentor has a conflicting session at this time");
+        }
+
+        // The mentee cannot be in two sessions at once either
+        BusyIntervals menteeBusy = availabilityService.loadMenteeBusyIntervals(
+            mentee.getId(),
+            request.getScheduledDateTime(),
+            endTime
+        );
+        if (menteeBusy.overlaps(request.getScheduledDateTime(), endTime)) {
+            throw new SlotConflictException("You already have a session booked at this time");
         }
 
         // Create session
@@ -87,69 +150,363 @@ public class SessionService {
         session.setNotes(request.getNotes());
         session.setStatus(Session.SessionStatus.PENDING);
 
-        Session savedSession = sessionRepository.save(session);
+        Session savedSession = saveBooking(session);
+        availabilityService.onSessionBooked(savedSession);
+        listVersions.sessionsChanged(mentor.getId(), menteeId);
+        if (holdId != null) {
+            // Released on commit while the mentor lock is still held, so nobody sees the slot free in between
+            releaseHoldAfterCommit(holdId, mentee.getId());
+        }
         return convertToSessionResponse(savedSession);
     }
 
+    /**
+     * Books a weekly or bi-weekly series. All occurrences are checked against one bulk load of the
+     * mentor's and mentee's sessions and inserted in one batch. With {@code allOrNothing}, any conflict
+     * books nothing; otherwise the free occurrences are booked and the rest reported.
+     */
+    @Transactional
+    public SessionSeriesResponse bookSeries(Long menteeId, SessionSeriesRequest request) {
+        User mentee = userRepository.getReferenceById(menteeId);
+
+        User mentor = userRepository.findById(request.getMentorId())
+                .orElseThrow(() -> new RuntimeException("Mentor not found"));
+
+        if (!mentor.getRoles().contains("MENTOR")) {
+            throw new RuntimeException("Selected user is not a mentor");
+        }
+
+        bookingLocks.lockUntilTransactionEnds(mentor.getId());
+
+        int duration = request.getDurationMinutes();
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (int i = 0; i < request.getOccurrences(); i++) {
+            starts.add(request.getFirstDateTime().plusWeeks((long) i * request.getRecurrence().getWeeks()));
+        }
+        LocalDateTime rangeStart = starts.get(0);
+        LocalDateTime rangeEnd = starts.get(starts.size() - 1).plusMinutes(duration);
+
+        // One query per party for the whole series instead of one per occurrence
+        BusyIntervals mentorBusy = availabilityService.loadBusyIntervals(mentor.getId(), rangeStart, rangeEnd);
+        BusyIntervals menteeBusy = availabilityService.loadMenteeBusyIntervals(mentee.getId(), rangeStart, rangeEnd);
+
+        SessionSeriesResponse response = new SessionSeriesResponse();
+        List<Session> toBook = new ArrayList<>();
+        List<SessionSeriesResponse.OccurrenceResult> bookedResults = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plusMinutes(duration);
+            SessionSeriesResponse.OccurrenceResult result = new SessionSeriesResponse.OccurrenceResult();
+            result.setScheduledDateTime(start);
+
+            if (!start.isAfter(LocalDateTime.now())) {
+                result.setReason("Occurrence is in the past");
+            } else if (mentorBusy.overlaps(start, end)) {
+                result.setReason("Mentor has a conflicting session at this time");
+            } else if (menteeBusy.overlaps(start, end)) {
+                result.setReason("You already have a session booked at this time");
+            } else if (slotHolds.isHeld(mentor.getId(), BusyIntervals.toEpochMinute(start), BusyIntervals.toEpochMinute(end), null)) {
+                result.setReason("This slot is temporarily held by another mentee");
+            } else {
+                Session session = new Session();
+                session.setMentor(mentor);
+                session.setMentee(mentee);
+                session.setScheduledDateTime(start);
+                session.setDurationMinutes(duration);
+                session.setSessionType(request.getSessionType());
+                session.setNotes(request.getNotes());
+                session.setStatus(Session.SessionStatus.PENDING);
+                toBook.add(session);
+                bookedResults.add(result);
+            }
+            response.getOccurrences().add(result);
+        }
+
+        int failed = response.getOccurrences().size() - toBook.size();
+        if (failed > 0 && request.isAllOrNothing()) {
+            response.setFailedCount(failed);
+            return response;
+        }
+
+        List<Session> savedSessions = saveBookings(toBook);
+        for (int i = 0; i < savedSessions.size(); i++) {
+            Session saved = savedSessions.get(i);
+            availabilityService.onSessionBooked(saved);
+            bookedResults.get(i).setBooked(true);
+            bookedResults.get(i).setSession(convertToSessionResponse(saved));
+        }
+        if (!savedSessions.isEmpty()) {
+            listVersions.sessionsChanged(mentor.getId(), menteeId);
+        }
+        response.setBookedCount(savedSessions.size());
+        response.setFailedCount(failed);
+        return response;
+    }
+
+    /**
+     * Holds a mentor interval for the mentee for a short time so it can be booked without racing others.
+     */
     @Transactional(readOnly = true)
-    public List<SessionResponse> getUpcomingSessions(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public SlotHoldResponse holdSlot(Long menteeId, SlotHoldRequest request) {
+        User mentor = userRepository.findById(request.getMentorId())
+                .orElseThrow(() -> new RuntimeException("Mentor not found"));
 
-        List<Session> sessions = sessionRepository.findUpcomingSessionsByUserId(user.getId(), LocalDateTime.now());
-        return sessions.stream()
-                .map(this::convertToSessionResponse)
-                .collect(Collectors.toList());
+        if (!mentor.getRoles().contains("MENTOR")) {
+            throw new RuntimeException("Selected user is not a mentor");
+        }
+        if (!request.getScheduledDateTime().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Only future slots can be held");
+        }
+
+        bookingLocks.lockUntilTransactionEnds(mentor.getId());
+
+        LocalDateTime endTime = request.getScheduledDateTime().plusMinutes(request.getDurationMinutes());
+        if (availabilityService.loadBusyIntervals(mentor.getId(), request.getScheduledDateTime(), endTime)
+                .overlaps(request.getScheduledDateTime(), endTime)) {
+            throw new SlotConflictException("Mentor has a conflicting session at this time");
+        }
+        if (availabilityService.loadMenteeBusyIntervals(menteeId, request.getScheduledDateTime(), endTime)
+                .overlaps(request.getScheduledDateTime(), endTime)) {
+            throw new SlotConflictException("You already have a session booked at this time");
+        }
+
+        SlotHoldRegistry.SlotHold hold = slotHolds.place(
+            mentor.getId(),
+            menteeId,
+            BusyIntervals.toEpochMinute(request.getScheduledDateTime()),
+            BusyIntervals.toEpochMinute(endTime)
+        );
+
+        SlotHoldResponse response = new SlotHoldResponse();
+        response.setHoldId(hold.getId());
+        response.setMentorId(hold.getMentorId());
+        response.setScheduledDateTime(LocalDateTime.ofEpochSecond(hold.getStartMinute() * 60, 0, ZoneOffset.UTC));
+        response.setDurationMinutes((int) (hold.getEndMinute() - hold.getStartMinute()));
+        response.setExpiresAt(Instant.ofEpochMilli(hold.getExpiresAtMillis()));
+        return response;
     }
 
     @Transactional(readOnly = true)
-    public List<SessionResponse> getPastSessions(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public void releaseHold(Long menteeId, String holdId) {
+        if (!slotHolds.release(holdId, menteeId)) {
+            throw new RuntimeException("Hold not found or already expired");
+        }
+    }
 
-        List<Session> sessions = sessionRepository.findPastSessionsByUserId(user.getId(), LocalDateTime.now());
-        return sessions.stream()
-                .map(this::convertToSessionResponse)
-                .collect(Collectors.toList());
+    private void releaseHoldAfterCommit(String holdId, Long menteeId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                slotHolds.release(holdId, menteeId);
+            }
+        });
+    }
+
+    // Flushes the insert so a booking from another instance that slipped past the lock surfaces as a conflict
+    private Session saveBooking(Session session) {
+        try {
+            return sessionRepository.saveAndFlush(session);
+        } catch (DataIntegrityViolationException e) {
+            String detail = e.getMostSpecificCause().getMessage();
+            if (detail != null && detail.contains(MENTOR_OVERLAP_CONSTRAINT)) {
+                throw new SlotConflictException("Mentor has a conflicting session at this time", e);
+            }
+            throw e;
+        }
+    }
+
+    // Batched variant of saveBooking for series inserts
+    private List<Session> saveBookings(List<Session> sessions) {
+        try {
+            List<Session> saved = sessionRepository.saveAll(sessions);
+            sessionRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            String detail = e.getMostSpecificCause().getMessage();
+            if (detail != null && detail.contains(MENTOR_OVERLAP_CONSTRAINT)) {
+                throw new SlotConflictException("Mentor has a conflicting session in this series", e);
+            }
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public SessionPage getUpcomingSessions(Long userId, String cursor, Integer limit) {
+        // Keyset page: seeks past the last (scheduledDateTime, id) seen instead of using OFFSET
+        LocalDateTime now = LocalDateTime.now();
+        SessionCursor after = cursor != null ? SessionCursor.decode(cursor) : new SessionCursor(now, Long.MIN_VALUE);
+        int pageSize = resolvePageSize(limit);
+        List<SessionResponse> rows = sessionRepository.findUpcomingSessionPage(
+                userId, now, after.getScheduledDateTime(), after.getId(), PageRequest.of(0, pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public SessionPage getPastSessions(Long userId, String cursor, Integer limit) {
+        LocalDateTime now = LocalDateTime.now();
+        SessionCursor before = cursor != null ? SessionCursor.decode(cursor) : new SessionCursor(now, Long.MAX_VALUE);
+        int pageSize = resolvePageSize(limit);
+        List<SessionResponse> rows = sessionRepository.findPastSessionPage(
+                userId, now, before.getScheduledDateTime(), before.getId(), PageRequest.of(0, pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // One extra row is fetched to tell whether another page exists
+    private SessionPage toPage(List<SessionResponse> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new SessionPage(rows, null);
+        }
+        List<SessionResponse> page = rows.subList(0, pageSize);
+        SessionResponse last = page.get(pageSize - 1);
+        return new SessionPage(page, new SessionCursor(last.getScheduledDateTime(), last.getId()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public SessionChanges getSessionChanges(Long userId, String since) {
+        // Watermark "updatedAt,id"; no watermark replays every session once
+        LocalDateTime afterTime = CHANGES_ORIGIN;
+        long afterId = Long.MIN_VALUE;
+        if (since != null) {
+            try {
+                int separator = since.lastIndexOf(',');
+                afterTime = LocalDateTime.parse(since.substring(0, separator));
+                afterId = Long.parseLong(since.substring(separator + 1));
+            } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid watermark, expected <updatedAt>,<id>");
+            }
+        }
+
+        List<SessionResponse> rows = sessionRepository.findChangedSessions(
+                userId, afterTime, afterId, PageRequest.of(0, maxChangesPerPoll + 1));
+        boolean hasMore = rows.size() > maxChangesPerPoll;
+        List<SessionResponse> changes = hasMore ? rows.subList(0, maxChangesPerPoll) : rows;
+
+        // updatedAt is stamped before commit, so a slow transaction can surface a change older than one already
+        // returned. The watermark stays behind the settle horizon so such changes are still picked up next poll.
+        if (!changes.isEmpty()) {
+            SessionResponse last = changes.get(changes.size() - 1);
+            LocalDateTime horizon = LocalDateTime.now().minus(Duration.ofMillis(changesSettleMillis));
+            if (hasMore || last.getUpdatedAt().isBefore(horizon)) {
+                afterTime = last.getUpdatedAt();
+                afterId = last.getId();
+            } else if (horizon.isAfter(afterTime)) {
+                afterTime = horizon;
+                afterId = Long.MIN_VALUE;
+            }
+        }
+        return new SessionChanges(changes, afterTime + "," + afterId, hasMore);
     }
 
     @Transactional
-    public SessionResponse updateSessionStatus(Long sessionId, Session.SessionStatus status, String username) {
+    public SessionResponse updateSessionStatus(Long sessionId, Session.SessionStatus status, Long userId) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
-        // Validate that the user is the mentor for this session
-        if (!session.getMentor().getUsername().equals(username)) {
+        // Validate that the user is the mentor for this session (the proxy id needs no query)
+        if (!session.getMentor().getId().equals(userId)) {
             throw new RuntimeException("You can only update sessions where you are the mentor");
         }
 
+        Session.SessionStatus previousStatus = session.getStatus();
         session.setStatus(status);
         Session updatedSession = sessionRepository.save(session);
+
+        // Keep the mentor's cached calendar in step with whether the session still blocks time
+        if (previousStatus.isBlocking() && !status.isBlocking()) {
+            availabilityService.onSessionReleased(updatedSession);
+        } else if (!previousStatus.isBlocking() && status.isBlocking()) {
+            availabilityService.onSessionBooked(updatedSession);
+        }
+        listVersions.sessionsChanged(session.getMentor().getId(), session.getMentee().getId());
         return convertToSessionResponse(updatedSession);
     }
 
     @Transactional
-    public SessionResponse cancelSession(Long sessionId, String username) {
+    public SessionResponse cancelSession(Long sessionId, Long userId) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
         // Validate that the user is either the mentor or mentee
-        if (!session.getMentor().getUsername().equals(username) && 
-            !session.getMentee().getUsername().equals(username)) {
+        if (!session.getMentor().getId().equals(userId) && 
+            !session.getMentee().getId().equals(userId)) {
             throw new RuntimeException("You can only cancel your own sessions");
         }
 
+        boolean wasBlocking = session.getStatus().isBlocking();
         session.setStatus(Session.SessionStatus.CANCELLED);
         Session updatedSession = sessionRepository.save(session);
+        if (wasBlocking) {
+            availabilityService.onSessionReleased(updatedSession);
+        }
+        listVersions.sessionsChanged(session.getMentor().getId(), session.getMentee().getId());
         return convertToSessionResponse(updatedSession);
     }
 
+    /**
+     * Moves one chunk of CONFIRMED sessions that ended before the cutoff to COMPLETED (someone joined) or
+     * NO_SHOW (nobody did). Both terminal states still block the mentor's time, so calendars are untouched.
+     */
+    @Transactional
+    public ExpiredSweep sweepExpiredSessions(LocalDateTime cutoff, int chunkSize) {
+        List<SessionRepository.ExpiredSession> expired = sessionRepository.lockExpiredConfirmedSessions(cutoff, chunkSize);
+        if (expired.isEmpty()) {
+            return new ExpiredSweep(0, 0, 0);
+        }
+
+        List<Long> ids = new ArrayList<>(expired.size());
+        for (SessionRepository.ExpiredSession session : expired) {
+            ids.add(session.getId());
+            listVersions.sessionsChanged(session.getMentorId(), session.getMenteeId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int completed = sessionRepository.markCompleted(ids, now);
+        int noShow = sessionRepository.markNoShow(ids, now);
+        return new ExpiredSweep(expired.size(), completed, noShow);
+    }
+
+    /**
+     * Cancels one chunk of PENDING sessions whose start passed before the cutoff without the mentor answering.
+     * After commit their time is released from the mentor's cached calendars like any other cancellation, and
+     * each mentee gets an in-app notification. Returns how many were locked.
+     */
+    @Transactional
+    public int sweepUnansweredSessions(LocalDateTime cutoff, int chunkSize) {
+        List<SessionRepository.ExpiredSession> unanswered = sessionRepository.lockUnansweredSessions(cutoff, chunkSize);
+        if (unanswered.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(unanswered.size());
+        for (SessionRepository.ExpiredSession session : unanswered) {
+            ids.add(session.getId());
+            listVersions.sessionsChanged(session.getMentorId(), session.getMenteeId());
+        }
+        sessionRepository.markCancelled(ids, LocalDateTime.now());
+
+        // Read back after the bulk update, so the sessions no longer count as blocking when their time is released
+        for (Session session : sessionRepository.findAllById(ids)) {
+            availabilityService.onSessionReleased(session);
+            notificationService.createRequestExpiredNotification(session);
+        }
+        return unanswered.size();
+    }
+
     @Transactional
-    public void recordSessionJoin(Long sessionId, String username) {
+    public void recordSessionJoin(Long sessionId, Long userId) {
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
-        User actor = userRepository.findByUsername(username)
+        // Loaded, not proxied: the notification shows the actor's name
+        User actor = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         boolean isMentor = session.getMentor().getId().equals(actor.getId());
@@ -191,4 +548,11 @@ public class SessionService {
         response.setUpdatedAt(session.getUpdatedAt());
         return response;
     }
-} 
\ No newline at end of file
+
+    @lombok.Value
+    public static class ExpiredSweep {
+        int locked;
+        int completed;
+        int noShow;
+    }
+}
@@ -0,0 +1,224 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.exception.SlotConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Short-lived in-memory holds on mentor intervals, taken while a mentee fills in the booking form.
+ * Expiry runs on a hashed timing wheel: each hold sits in the bucket its deadline hashes to, with a
+ * round count for deadlines beyond one revolution, so a single tick task expires every hold instead
+ * of one scheduled task per hold.
+ */
+@Component
+public class SlotHoldRegistry {
+
+    private final AvailabilitySlotCache slotCache;
+    private final long holdMillis;
+    private final long tickMillis;
+    private final int maxHoldsPerMentee;
+
+    private final List<Set<SlotHold>> wheel;
+    private int cursor;
+    private final Map<String, SlotHold> holdsById = new HashMap<>();
+    private final Map<Long, List<SlotHold>> holdsByMentor = new HashMap<>();
+    private final Map<Long, Integer> holdCountByMentee = new HashMap<>();
+
+    public SlotHoldRegistry(AvailabilitySlotCache slotCache,
+                            @Value("${booking.hold.seconds:120}") int holdSeconds,
+                            @Value("${booking.hold.tick-ms:1000}") long tickMillis,
+                            @Value("${booking.hold.wheel-size:512}") int wheelSize,
+                            @Value("${booking.hold.max-per-mentee:3}") int maxHoldsPerMentee) {
+        this.slotCache = slotCache;
+        this.holdMillis = holdSeconds * 1000L;
+        this.tickMillis = tickMillis;
+        this.maxHoldsPerMentee = maxHoldsPerMentee;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Places a hold on [startMinute, endMinute). The caller must already hold the mentor's booking lock
+     * and have checked the interval against sessions.
+     */
+    public SlotHold place(Long mentorId, Long menteeId, long startMinute, long endMinute) {
+        SlotHold hold;
+        synchronized (this) {
+            if (overlapsHold(mentorId, startMinute, endMinute, null)) {
+                throw new SlotConflictException("This slot is temporarily held by another mentee", holdSeconds());
+            }
+            if (holdCountByMentee.getOrDefault(menteeId, 0) >= maxHoldsPerMentee) {
+                throw new IllegalStateException("You can hold at most " + maxHoldsPerMentee + " slots at a time");
+            }
+
+            hold = new SlotHold(UUID.randomUUID().toString(), mentorId, menteeId, startMinute, endMinute,
+                    System.currentTimeMillis() + holdMillis);
+            holdsById.put(hold.id, hold);
+            holdsByMentor.computeIfAbsent(mentorId, id -> new ArrayList<>()).add(hold);
+            holdCountByMentee.merge(menteeId, 1, Integer::sum);
+            schedule(hold);
+        }
+        slotCache.invalidateMentor(mentorId);
+        return hold;
+    }
+
+    public synchronized SlotHold get(String holdId) {
+        return holdsById.get(holdId);
+    }
+
+    /**
+     * Releases the hold if it belongs to the mentee; returns false when it does not exist or already expired.
+     */
+    public boolean release(String holdId, Long menteeId) {
+        SlotHold hold;
+        synchronized (this) {
+            hold = holdsById.get(holdId);
+            if (hold == null || !hold.menteeId.equals(menteeId)) {
+                return false;
+            }
+            remove(hold);
+            wheel.get(hold.bucket).remove(hold);
+        }
+        slotCache.invalidateMentor(hold.mentorId);
+        return true;
+    }
+
+    // Upper bound on how long a conflicting hold can still block a slot
+    public int holdSeconds() {
+        return (int) (holdMillis / 1000);
+    }
+
+    /**
+     * True if [startMinute, endMinute) overlaps a live hold on the mentor other than {@code exceptHoldId}.
+     */
+    public synchronized boolean isHeld(Long mentorId, long startMinute, long endMinute, String exceptHoldId) {
+        return overlapsHold(mentorId, startMinute, endMinute, exceptHoldId);
+    }
+
+    /**
+     * Live holds on the mentor as busy intervals, so slot generation hides them in one merge.
+     */
+    public synchronized BusyIntervals heldIntervals(Long mentorId) {
+        List<SlotHold> holds = holdsByMentor.get(mentorId);
+        if (holds == null) {
+            return BusyIntervals.empty();
+        }
+        List<long[]> intervals = new ArrayList<>(holds.size());
+        for (SlotHold hold : holds) {
+            intervals.add(new long[] { hold.startMinute, hold.endMinute });
+        }
+        return BusyIntervals.fromIntervals(intervals);
+    }
+
+    @Scheduled(fixedRateString = "${booking.hold.tick-ms:1000}")
+    public void tick() {
+        List<Long> expiredMentors = new ArrayList<>();
+        synchronized (this) {
+            cursor = (cursor + 1) % wheel.size();
+            Iterator<SlotHold> iterator = wheel.get(cursor).iterator();
+            while (iterator.hasNext()) {
+                SlotHold hold = iterator.next();
+                if (hold.rounds > 0) {
+                    hold.rounds--;
+                    continue;
+                }
+                iterator.remove();
+                remove(hold);
+                expiredMentors.add(hold.mentorId);
+            }
+        }
+        expiredMentors.forEach(slotCache::invalidateMentor);
+    }
+
+    private void schedule(SlotHold hold) {
+        long ticks = Math.max(1, (hold.expiresAtMillis - System.currentTimeMillis() + tickMillis - 1) / tickMillis);
+        hold.bucket = (int) ((cursor + ticks) % wheel.size());
+        // The first visit to the bucket is after (ticks - 1) % size + 1 ticks; every further revolution is a round
+        hold.rounds = (int) ((ticks - 1) / wheel.size());
+        wheel.get(hold.bucket).add(hold);
+    }
+
+    private void remove(SlotHold hold) {
+        holdsById.remove(hold.id);
+        List<SlotHold> mentorHolds = holdsByMentor.get(hold.mentorId);
+        if (mentorHolds != null) {
+            mentorHolds.remove(hold);
+            if (mentorHolds.isEmpty()) {
+                holdsByMentor.remove(hold.mentorId);
+            }
+        }
+        holdCountByMentee.computeIfPresent(hold.menteeId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean overlapsHold(Long mentorId, long startMinute, long endMinute, String exceptHoldId) {
+        List<SlotHold> holds = holdsByMentor.get(mentorId);
+        if (holds == null) {
+            return false;
+        }
+        for (SlotHold hold : holds) {
+            if (!hold.id.equals(exceptHoldId) && hold.startMinute < endMinute && startMinute < hold.endMinute) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One live hold. Times are wall-clock epoch minutes (see {@link BusyIntervals}).
+     */
+    public static final class SlotHold {
+        private final String id;
+        private final Long mentorId;
+        private final Long menteeId;
+        private final long startMinute;
+        private final long endMinute;
+        private final long expiresAtMillis;
+        private int bucket;
+        private int rounds;
+
+        private SlotHold(String id, Long mentorId, Long menteeId, long startMinute, long endMinute, long expiresAtMillis) {
+            this.id = id;
+            this.mentorId = mentorId;
+            this.menteeId = menteeId;
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getMentorId() {
+            return mentorId;
+        }
+
+        public Long getMenteeId() {
+            return menteeId;
+        }
+
+        public long getStartMinute() {
+            return startMinute;
+        }
+
+        public long getEndMinute() {
+            return endMinute;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.AuthResponse;
+import com.mentoringplatform.server.exception.InvalidTokenException;
+import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.repository.UserRepository;
+import com.mentoringplatform.server.security.JwtTokenProvider;
+import com.mentoringplatform.server.security.RevokedTokens;
+import com.mentoringplatform.server.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Issues access/refresh token pairs and handles their rotation and revocation. Refresh tokens are single-use:
+ * each refresh revokes the presented token, so a replayed one is rejected by the exact database check.
+ */
+@Service
+public class TokenService {
+
+    private final JwtTokenProvider tokenProvider;
+    private final RevokedTokens revokedTokens;
+    private final UserRepository userRepository;
+
+    public TokenService(JwtTokenProvider tokenProvider,
+                        RevokedTokens revokedTokens,
+                        UserRepository userRepository) {
+        this.tokenProvider = tokenProvider;
+        this.revokedTokens = revokedTokens;
+        this.userRepository = userRepository;
+    }
+
+    public AuthResponse issueTokens(UserPrincipal userPrincipal) {
+        return new AuthResponse(
+                tokenProvider.generateAccessToken(userPrincipal),
+                tokenProvider.generateRefreshToken(userPrincipal),
+                tokenProvider.getAccessTokenExpirationMillis() / 1000,
+                userPrincipal.getUsername(),
+                userPrincipal.getEmail(),
+                userPrincipal.getAuthorities().stream()
+                        .map(authority -> authority.getAuthority().replace("ROLE_", ""))
+                        .toArray(String[]::new)
+        );
+    }
+
+    @Transactional
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims = tokenProvider.parseRefreshClaims(refreshToken);
+        if (claims == null || claims.getId() == null) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+
+        // Current roles and enabled flag go into the new access token
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new InvalidTokenException("Invalid or expired refresh token"));
+        Integer tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        if (!user.isEnabled() || tokenVersion == null || tokenVersion != user.getTokenVersion()) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+
+        if (!revokedTokens.revokeRefreshToken(claims.getId(), userId, claims.getExpiration())) {
+            throw new InvalidTokenException("Refresh token has already been used or revoked");
+        }
+        return issueTokens(UserPrincipal.create(user));
+    }
+
+    /**
+     * Revokes the caller's access token and, when given and owned by the same user, their refresh token.
+     */
+    @Transactional
+    public void logout(Long userId, String accessToken, String refreshToken) {
+        Claims accessClaims = accessToken != null ? tokenProvider.parseClaims(accessToken) : null;
+        if (accessClaims != null && accessClaims.getId() != null) {
+            revokedTokens.revokeAccessToken(accessClaims.getId(), userId, accessClaims.getExpiration());
+        }
+
+        Claims refreshClaims = refreshToken != null ? tokenProvider.parseRefreshClaims(refreshToken) : null;
+        if (refreshClaims != null && refreshClaims.getId() != null
+                && userId.equals(refreshClaims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class))) {
+            revokedTokens.revokeRefreshToken(refreshClaims.getId(), userId, refreshClaims.getExpiration());
+        }
+    }
+}
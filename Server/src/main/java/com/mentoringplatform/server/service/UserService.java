@@ -3,20 +3,36 @@ package com.mentoringplatform.server.service;
 import com.mentoringplatform.server.exception.UserAlreadyExistsException;
 import com.mentoringplatform.server.model.User;
 import com.mentoringplatform.server.repository.UserRepository;
+import com.mentoringplatform.server.security.AuthenticationCache;
+import com.mentoringplatform.server.security.TokenVersions;
 import com.mentoringplatform.server.security.UserPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final AvailabilityService availabilityService;
+    private final ListVersions listVersions;
+    private final TokenVersions tokenVersions;
+    private final AuthenticationCache authenticationCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       AvailabilityService availabilityService,
+                       ListVersions listVersions,
+                       TokenVersions tokenVersions,
+                       AuthenticationCache authenticationCache) {
         this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.listVersions = listVersions;
+        this.tokenVersions = tokenVersions;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -44,6 +60,32 @@ public class UserService implements UserDetailsService {
             user.getRoles().add("MENTEE");
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (savedUser.getRoles().contains("MENTOR")) {
+            availabilityService.onMentorRegistered(savedUser.getId());
+            listVersions.mentorListingChanged();
+        }
+        return savedUser;
+    }
+
+    /**
+     * Revokes every token issued to the user so far by moving to the next token version. Call it whenever
+     * roles or the enabled flag change, since tokens carry both.
+     */
+    @Transactional
+    public void revokeTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        authenticationCache.evictUser(user.getUsername());
+
+        int tokenVersion = user.getTokenVersion();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenVersions.revokedBelow(userId, tokenVersion);
+            }
+        });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.model.Availability;
+import com.mentoringplatform.server.model.User;
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable weekly availability: the open time windows for each day of the week.
+ * Mentors who never saved a schedule read {@link #DEFAULT}, so availability reads never insert rows.
+ */
+public final class WeeklySchedule {
+
+    // Weekdays 9 AM - 5 PM, weekends 10 AM - 4 PM (shorter hours)
+    public static final WeeklySchedule DEFAULT = buildDefault();
+
+    private final Map<DayOfWeek, List<Window>> windowsByDay;
+    private final boolean template;
+
+    private WeeklySchedule(Map<DayOfWeek, List<Window>> windowsByDay, boolean template) {
+        this.windowsByDay = windowsByDay;
+        this.template = template;
+    }
+
+    /**
+     * Builds a schedule from a mentor's persisted rows. Rows flagged unavailable mark a day as closed
+     * without contributing a window. An empty list means the mentor never saved a schedule.
+     */
+    public static WeeklySchedule fromAvailabilities(List<Availability> availabilities) {
+        if (availabilities.isEmpty()) {
+            return DEFAULT;
+        }
+
+        Map<DayOfWeek, List<Window>> windowsByDay = new EnumMap<>(DayOfWeek.class);
+        for (Availability availability : availabilities) {
+            if (availability.isAvailable()) {
+                windowsByDay.computeIfAbsent(availability.getDayOfWeek(), day -> new ArrayList<>())
+                        .add(new Window(availability.getStartTime(), availability.getEndTime()));
+            }
+        }
+        return freeze(windowsByDay, false);
+    }
+
+    public List<Window> windowsFor(DayOfWeek dayOfWeek) {
+        return windowsByDay.getOrDefault(dayOfWeek, List.of());
+    }
+
+    /**
+     * True for the built-in default, which is not backed by any rows.
+     */
+    public boolean isTemplate() {
+        return template;
+    }
+
+    /**
+     * Rows that persist this schedule for the given days; used when a mentor first edits a templated schedule.
+     */
+    public List<Availability> toAvailabilities(User mentor, List<DayOfWeek> days) {
+        List<Availability> availabilities = new ArrayList<>();
+        for (DayOfWeek day : days) {
+            for (Window window : windowsFor(day)) {
+                Availability availability = new Availability();
+                availability.setMentor(mentor);
+                availability.setDayOfWeek(day);
+                availability.setStartTime(window.getStartTime());
+                availability.setEndTime(window.getEndTime());
+                availability.setAvailable(true);
+                availabilities.add(availability);
+            }
+        }
+        return availabilities;
+    }
+
+    private static WeeklySchedule buildDefault() {
+        Map<DayOfWeek, List<Window>> windowsByDay = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            boolean weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+            Window window = weekend
+                    ? new Window(LocalTime.of(10, 0), LocalTime.of(16, 0))
+                    : new Window(LocalTime.of(9, 0), LocalTime.of(17, 0));
+            windowsByDay.put(day, new ArrayList<>(List.of(window)));
+        }
+        return freeze(windowsByDay, true);
+    }
+
+    private static WeeklySchedule freeze(Map<DayOfWeek, List<Window>> windowsByDay, boolean template) {
+        Map<DayOfWeek, List<Window>> frozen = new EnumMap<>(DayOfWeek.class);
+        windowsByDay.forEach((day, windows) -> {
+            windows.sort(Comparator.comparing(Window::getStartTime));
+            frozen.put(day, List.copyOf(windows));
+        });
+        return new WeeklySchedule(frozen, template);
+    }
+
+    /**
+     * One open window within a day, [startTime, endTime).
+     */
+    @Value
+    public static class Window {
+        LocalTime startTime;
+        LocalTime endTime;
+    }
+}
@@ -0,0 +1,151 @@
+package com.mentoringplatform.server.repository;
+
+import com.mentoringplatform.server.dto.SessionPage;
+import com.mentoringplatform.server.model.Session;
+import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.service.AvailabilityService;
+import com.mentoringplatform.server.service.ListVersions;
+import com.mentoringplatform.server.service.MentorBookingLocks;
+import com.mentoringplatform.server.service.NotificationService;
+import com.mentoringplatform.server.service.PushNotificationDispatcher;
+import com.mentoringplatform.server.service.SessionService;
+import com.mentoringplatform.server.service.SlotHoldRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Session lists are projected straight into responses, one query per participant side, so the number of
+ * statements must not depend on how many sessions the user has.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SessionListQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SessionService sessionService;
+    private Statistics statistics;
+    private User user;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new SessionService(
+                sessionRepository,
+                userRepository,
+                mock(AvailabilityService.class),
+                mock(NotificationService.class),
+                mock(PushNotificationDispatcher.class),
+                mock(MentorBookingLocks.class),
+                mock(SlotHoldRegistry.class),
+                mock(ListVersions.class),
+                20, 100, 200, 2000);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = persistUser("both");
+        other = persistUser("other");
+    }
+
+    @Test
+    void upcomingAndPastListsIssueTheSameStatementsForFewAndManySessions() {
+        addSessions(3);
+        long upcomingFew = statementsFor(() -> sessionService.getUpcomingSessions(user.getId(), null, 20));
+        long pastFew = statementsFor(() -> sessionService.getPastSessions(user.getId(), null, 20));
+
+        addSessions(300);
+        long upcomingMany = statementsFor(() -> sessionService.getUpcomingSessions(user.getId(), null, 20));
+        long pastMany = statementsFor(() -> sessionService.getPastSessions(user.getId(), null, 20));
+
+        // One query as mentor and one as mentee, whatever the list size
+        assertEquals(2, upcomingFew);
+        assertEquals(upcomingFew, upcomingMany);
+        assertEquals(2, pastFew);
+        assertEquals(pastFew, pastMany);
+    }
+
+    @Test
+    void mergedMentorAndMenteeQueriesIssueOneStatementPerSide() {
+        addSessions(300);
+        LocalDateTime now = LocalDateTime.now();
+
+        long upcoming = statementsFor(() -> sessionRepository.findUpcomingSessionPage(
+                user.getId(), now, now, Long.MIN_VALUE, PageRequest.of(0, 50)));
+        long past = statementsFor(() -> sessionRepository.findPastSessionPage(
+                user.getId(), now, now, Long.MAX_VALUE, PageRequest.of(0, 50)));
+        long changes = statementsFor(() -> sessionRepository.findChangedSessions(
+                user.getId(), now.minusYears(1), Long.MIN_VALUE, PageRequest.of(0, 500)));
+
+        assertEquals(2, upcoming);
+        assertEquals(2, past);
+        assertEquals(2, changes);
+    }
+
+    @Test
+    void followingPagesIssueTheSameStatementsAsTheFirst() {
+        addSessions(300);
+        SessionPage first = sessionService.getUpcomingSessions(user.getId(), null, 20);
+
+        long next = statementsFor(() -> sessionService.getUpcomingSessions(user.getId(), first.getNextCursor(), 20));
+
+        assertEquals(2, next);
+    }
+
+    private long statementsFor(Supplier<?> call) {
+        entityManager.clear();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Half of the sessions have the user as mentor and half as mentee, spread over past and future
+    private void addSessions(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Session session = new Session();
+            boolean asMentor = i % 2 == 0;
+            session.setMentor(asMentor ? user : other);
+            session.setMentee(asMentor ? other : user);
+            session.setScheduledDateTime(now.plusHours(i % 4 < 2 ? i + 1 : -(i + 1)));
+            session.setDurationMinutes(60);
+            session.setStatus(Session.SessionStatus.CONFIRMED);
+            entityManager.persist(session);
+        }
+        entityManager.flush();
+    }
+
+    private User persistUser(String username) {
+        User created = new User();
+        created.setUsername(username);
+        created.setEmail(username + "@example.com");
+        created.setPassword("secret");
+        created.getRoles().add("MENTOR");
+        created.getRoles().add("MENTEE");
+        return entityManager.persistAndFlush(created);
+    }
+}
@@ -0,0 +1,93 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.AvailabilitySlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single-flight sharing must not hand a query a slot list computed before a change it arrived after.
+ */
+class AvailabilitySlotCacheTest {
+
+    private static final AvailabilitySlotCache.SlotQueryKey KEY =
+            new AvailabilitySlotCache.SlotQueryKey(1L, LocalDate.of(2030, 1, 7), LocalDate.of(2030, 1, 7), 60);
+
+    private final AvailabilitySlotCache cache = new AvailabilitySlotCache(5_000, 100);
+
+    @Test
+    void queryAfterInvalidationDoesNotJoinAnOlderComputation() throws Exception {
+        List<AvailabilitySlot> before = List.of(slot(10));
+        List<AvailabilitySlot> after = List.of(slot(11));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<AvailabilitySlot>> first = CompletableFuture.supplyAsync(() -> cache.get(KEY, () -> {
+            loading.countDown();
+            await(release);
+            return before;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // E.g. the 10:00 slot was just booked
+        cache.invalidateMentor(1L);
+        assertEquals(after, cache.get(KEY, () -> after));
+
+        release.countDown();
+        assertEquals(before, first.get(5, TimeUnit.SECONDS));
+        // The pre-change result was not stored either
+        assertEquals(after, cache.get(KEY, () -> after));
+    }
+
+    @Test
+    void identicalQueriesInTheSameGenerationShareOneComputation() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<AvailabilitySlot> slots = List.of(slot(10));
+
+        CompletableFuture<List<AvailabilitySlot>> first = CompletableFuture.supplyAsync(() -> cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return slots;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<AvailabilitySlot>> second = CompletableFuture.supplyAsync(() -> cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return slots;
+        }));
+        // Give the second query time to find the in-flight computation
+        Thread.sleep(100);
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    private static AvailabilitySlot slot(int hour) {
+        AvailabilitySlot slot = new AvailabilitySlot();
+        slot.setStartTime(LocalDateTime.of(2030, 1, 7, hour, 0));
+        slot.setEndTime(LocalDateTime.of(2030, 1, 7, hour + 1, 0));
+        slot.setAvailable(true);
+        return slot;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.MentorAvailabilityRequest;
+import com.mentoringplatform.server.model.Session;
+import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.repository.AvailabilityExceptionRepository;
+import com.mentoringplatform.server.repository.AvailabilityRepository;
+import com.mentoringplatform.server.repository.SessionRepository;
+import com.mentoringplatform.server.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The occupancy bitmap and the exact interval path must offer the same slots for the same mentor and day.
+ * One service has the day inside its calendar horizon and answers from the bitmap where it can; the other
+ * has a one-day horizon and always takes the interval path.
+ */
+class AvailabilitySlotPathsTest {
+
+    private static final long MENTOR_ID = 1L;
+    // A Monday (default hours 9 AM - 5 PM) inside the 56-day horizon but after today
+    private static final LocalDate DAY = LocalDate.now().plusDays(2).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @Test
+    void sessionOffTheQuantumGridGivesTheSameSlotsOnBothPaths() {
+        List<Session> sessions = List.of(session(LocalTime.of(10, 0), 20));
+
+        List<Long> fromCalendar = slots(56, sessions);
+        List<Long> fromIntervals = slots(1, sessions);
+
+        assertEquals(fromIntervals, fromCalendar);
+        // The interval path offers a start right where the 20-minute session ends
+        long tenTwenty = BusyIntervals.toEpochMinute(DAY.atTime(10, 20));
+        assertTrue(fromIntervals.contains(tenTwenty));
+    }
+
+    @Test
+    void alignedSessionGivesTheSameSlotsOnBothPaths() {
+        List<Session> sessions = List.of(session(LocalTime.of(10, 0), 30));
+
+        List<Long> fromCalendar = slots(56, sessions);
+
+        assertEquals(slots(1, sessions), fromCalendar);
+        assertFalse(fromCalendar.contains(BusyIntervals.toEpochMinute(DAY.atTime(10, 15))));
+    }
+
+    private static List<Long> slots(int horizonDays, List<Session> sessions) {
+        AvailabilityRepository availabilityRepository = mock(AvailabilityRepository.class);
+        when(availabilityRepository.findByMentorIdOrderByDayOfWeekAscStartTimeAsc(MENTOR_ID)).thenReturn(List.of());
+        AvailabilityExceptionRepository exceptionRepository = mock(AvailabilityExceptionRepository.class);
+        when(exceptionRepository.findForMentorInDateRange(eq(MENTOR_ID), any(), any())).thenReturn(List.of());
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.findBlockingSessionsForMentorInTimeRange(eq(MENTOR_ID), any(), any())).thenReturn(sessions);
+        SlotHoldRegistry slotHolds = mock(SlotHoldRegistry.class);
+        when(slotHolds.heldIntervals(anyLong())).thenReturn(BusyIntervals.empty());
+
+        AvailabilityService availabilityService = new AvailabilityService(
+            availabilityRepository,
+            exceptionRepository,
+            sessionRepository,
+            mock(UserRepository.class),
+            new MentorCalendarCache(horizonDays, 100),
+            mock(MentorFreeTimeIndex.class),
+            mock(AvailabilitySlotCache.class),
+            mock(MentorAvailabilityDigest.class),
+            slotHolds
+        );
+
+        MentorAvailabilityRequest request = new MentorAvailabilityRequest();
+        request.setMentorId(MENTOR_ID);
+        request.setStartDate(DAY);
+        request.setEndDate(DAY);
+        request.setDurationMinutes(30);
+
+        List<Long> starts = new ArrayList<>();
+        availabilityService.forEachAvailableSlot(request, 2L, (startMinute, durationMinutes) -> starts.add(startMinute));
+        return starts;
+    }
+
+    private static Session session(LocalTime start, int durationMinutes) {
+        User mentor = new User();
+        mentor.setId(MENTOR_ID);
+        Session session = new Session();
+        session.setMentor(mentor);
+        session.setScheduledDateTime(DAY.atTime(start));
+        session.setDurationMinutes(durationMinutes);
+        session.setStatus(Session.SessionStatus.CONFIRMED);
+        return session;
+    }
+}
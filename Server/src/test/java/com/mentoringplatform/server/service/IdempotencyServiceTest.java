@@ -0,0 +1,146 @@
+package com.mentoringplatform.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentoringplatform.server.dto.ApiResponse;
+import com.mentoringplatform.server.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two service instances over one table stand in for two nodes; each call commits on its own, as it does
+ * behind a controller.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+    private static final String USER = "mentee";
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyService nodeA;
+    private IdempotencyService nodeB;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new IdempotencyService(recordRepository, new ObjectMapper(), 1440, 100, 60000);
+        nodeB = new IdempotencyService(recordRepository, new ObjectMapper(), 1440, 100, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordRepository.deleteAll();
+    }
+
+    @Test
+    void retryOnAnotherNodeWhileRunningIsRejectedAndLaterReplayed() {
+        AtomicReference<ResponseEntity<?>> concurrentRetry = new AtomicReference<>();
+
+        ResponseEntity<?> first = nodeA.execute(KEY, USER, "POST /sessions/book", "request", () -> {
+            // The retry arrives on the other node before this one has finished
+            concurrentRetry.set(nodeB.execute(KEY, USER, "POST /sessions/book", "request", this::booked));
+            return booked();
+        });
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, concurrentRetry.get().getStatusCode());
+        assertEquals(1, executions.get());
+
+        ResponseEntity<?> replayed = nodeB.execute(KEY, USER, "POST /sessions/book", "request", this::booked);
+        assertEquals(HttpStatus.OK, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void differentRequestUnderAClaimedKeyIsRejected() {
+        AtomicReference<ResponseEntity<?>> other = new AtomicReference<>();
+
+        nodeA.execute(KEY, USER, "POST /sessions/book", "request", () -> {
+            other.set(nodeB.execute(KEY, USER, "POST /sessions/book", "another request", this::booked));
+            return booked();
+        });
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.get().getStatusCode());
+    }
+
+    @Test
+    void retryableOutcomeReleasesTheKey() {
+        ResponseEntity<?> busy = nodeA.execute(KEY, USER, "POST /sessions/book", "request", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error("SLOT_CONFLICT", "Mentor is handling other bookings, please retry"));
+        });
+        ResponseEntity<?> retried = nodeB.execute(KEY, USER, "POST /sessions/book", "request", this::booked);
+
+        assertEquals(HttpStatus.CONFLICT, busy.getStatusCode());
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void infrastructureFailureReleasesTheKey() {
+        ResponseEntity<?> failed = nodeA.execute(KEY, USER, "PUT /sessions/cancel", "request", () ->
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error("SERVICE_UNAVAILABLE", "connection refused")));
+        ResponseEntity<?> retried = nodeA.execute(KEY, USER, "PUT /sessions/cancel", "request", this::booked);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+        assertNull(retried.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void outcomeThatCannotBeStoredKeepsTheKeyClaimed() {
+        // Jackson cannot serialize an empty bean, so the committed outcome has nothing to replay
+        ResponseEntity<?> first = nodeA.execute(KEY, USER, "POST /sessions/book", "request", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(new Object());
+        });
+        ResponseEntity<?> retried = nodeB.execute(KEY, USER, "POST /sessions/book", "request", this::booked);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, retried.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void actionThatThrowsReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> nodeA.execute(KEY, USER, "POST /sessions/book", "request", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        ResponseEntity<?> retried = nodeB.execute(KEY, USER, "POST /sessions/book", "request", this::booked);
+
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    private ResponseEntity<?> booked() {
+        executions.incrementAndGet();
+        return ResponseEntity.ok(ApiResponse.success("session", "Session booked successfully"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.dto.SessionBookingRequest;
+import com.mentoringplatform.server.exception.SlotConflictException;
+import com.mentoringplatform.server.model.Session;
+import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.repository.SessionRepository;
+import com.mentoringplatform.server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires many parallel bookings for the same mentor and slot through the real per-mentor lock stripes and
+ * conflict checks. Sessions only become visible to other bookings when their transaction commits, as they
+ * would in the database, so without the lock every booking would pass the conflict check.
+ */
+class SessionBookingConcurrencyTest {
+
+    private static final long MENTOR_ID = 1L;
+    private static final int BOOKINGS = 2000;
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    private final List<Session> committedSessions = new CopyOnWriteArrayList<>();
+    private final AtomicLong sessionIds = new AtomicLong();
+    private SessionService sessionService;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        User mentor = new User();
+        mentor.setId(MENTOR_ID);
+        mentor.setUsername("mentor");
+        mentor.getRoles().add("MENTOR");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(MENTOR_ID)).thenReturn(Optional.of(mentor));
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User mentee = new User();
+            mentee.setId(invocation.getArgument(0));
+            return mentee;
+        });
+
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.saveAndFlush(any(Session.class))).thenAnswer(invocation -> {
+            Session session = invocation.getArgument(0);
+            session.setId(sessionIds.incrementAndGet());
+            // Visible to other transactions only after commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedSessions.add(session);
+                }
+            });
+            return session;
+        });
+
+        AvailabilityService availabilityService = mock(AvailabilityService.class);
+        when(availabilityService.loadBusyIntervals(eq(MENTOR_ID), any(), any()))
+                .thenAnswer(invocation -> BusyIntervals.fromSessions(new ArrayList<>(committedSessions)));
+        when(availabilityService.loadMenteeBusyIntervals(anyLong(), any(), any())).thenReturn(BusyIntervals.empty());
+
+        sessionService = new SessionService(
+                sessionRepository,
+                userRepository,
+                availabilityService,
+                mock(NotificationService.class),
+                mock(PushNotificationDispatcher.class),
+                // Generous timeout: every caller must reach the conflict check instead of timing out on the lock
+                new MentorBookingLocks(256, 60_000),
+                mock(SlotHoldRegistry.class),
+                mock(ListVersions.class),
+                20, 100, 200, 2000);
+        transactions = new TransactionTemplate(new SynchronizationOnlyTransactionManager());
+    }
+
+    @Test
+    void onlyOneOfManyParallelBookingsForTheSameSlotSucceeds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Throwable>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < BOOKINGS; i++) {
+                long menteeId = 1000L + i;
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactions.executeWithoutResult(status -> sessionService.bookSession(menteeId, bookingRequest()));
+                        return null;
+                    } catch (Throwable t) {
+                        return t;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Throwable> outcome : outcomes) {
+                Throwable failure = outcome.get(2, TimeUnit.MINUTES);
+                if (failure == null) {
+                    succeeded++;
+                } else {
+                    assertInstanceOf(SlotConflictException.class, failure);
+                }
+            }
+            assertEquals(1, succeeded);
+            assertEquals(1, committedSessions.size());
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static SessionBookingRequest bookingRequest() {
+        SessionBookingRequest request = new SessionBookingRequest();
+        request.setMentorId(MENTOR_ID);
+        request.setScheduledDateTime(SLOT);
+        request.setDurationMinutes(60);
+        return request;
+    }
+
+    // Runs transaction synchronizations (commit callbacks, lock release) without a database
+    private static class SynchronizationOnlyTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
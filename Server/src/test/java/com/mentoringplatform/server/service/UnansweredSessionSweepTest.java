@@ -0,0 +1,78 @@
+package com.mentoringplatform.server.service;
+
+import com.mentoringplatform.server.model.Session;
+import com.mentoringplatform.server.model.User;
+import com.mentoringplatform.server.repository.SessionRepository;
+import com.mentoringplatform.server.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unanswered requests cancelled by the sweeper must free the mentor's cached calendars and tell the mentee,
+ * as a cancellation through the API would.
+ */
+class UnansweredSessionSweepTest {
+
+    @Test
+    void cancelledRequestsAreReleasedAndMenteesNotified() {
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        AvailabilityService availabilityService = mock(AvailabilityService.class);
+        NotificationService notificationService = mock(NotificationService.class);
+        ListVersions listVersions = mock(ListVersions.class);
+
+        SessionRepository.ExpiredSession locked = mock(SessionRepository.ExpiredSession.class);
+        when(locked.getId()).thenReturn(7L);
+        when(locked.getMentorId()).thenReturn(1L);
+        when(locked.getMenteeId()).thenReturn(2L);
+        when(sessionRepository.lockUnansweredSessions(any(), anyInt())).thenReturn(List.of(locked));
+        Session cancelled = session(7L, 1L, 2L);
+        when(sessionRepository.findAllById(List.of(7L))).thenReturn(List.of(cancelled));
+
+        SessionService sessionService = new SessionService(
+                sessionRepository,
+                mock(UserRepository.class),
+                availabilityService,
+                notificationService,
+                mock(PushNotificationDispatcher.class),
+                new MentorBookingLocks(256, 1_000),
+                mock(SlotHoldRegistry.class),
+                listVersions,
+                20, 100, 200, 2000);
+
+        assertEquals(1, sessionService.sweepUnansweredSessions(LocalDateTime.now(), 500));
+
+        // Released only after the status change, so the session no longer counts as blocking
+        InOrder order = inOrder(sessionRepository, availabilityService);
+        order.verify(sessionRepository).markCancelled(eq(List.of(7L)), any());
+        order.verify(availabilityService).onSessionReleased(cancelled);
+        verify(notificationService).createRequestExpiredNotification(cancelled);
+        verify(listVersions).sessionsChanged(1L, 2L);
+    }
+
+    private static Session session(Long id, Long mentorId, Long menteeId) {
+        User mentor = new User();
+        mentor.setId(mentorId);
+        User mentee = new User();
+        mentee.setId(menteeId);
+        Session session = new Session();
+        session.setId(id);
+        session.setMentor(mentor);
+        session.setMentee(mentee);
+        session.setScheduledDateTime(LocalDateTime.now().minusMinutes(5));
+        session.setDurationMinutes(60);
+        session.setStatus(Session.SessionStatus.CANCELLED);
+        return session;
+    }
+}